@@ -1,21 +1,56 @@
 package com.finance.cli;
 
+import com.finance.core.service.AnalyticsService;
 import com.finance.core.service.AuthService;
 import com.finance.core.service.FinanceService;
+import com.finance.core.service.ImportDeduplicator;
+import com.finance.core.repository.UserRepository;
 import com.finance.infra.storage.DataStorage;
+import com.finance.infra.storage.EventSourcedStorage;
 import com.finance.infra.storage.FileDataStorage;
+import com.finance.infra.export.ArchiveExporter;
+import com.finance.infra.export.ArchivePartition;
+import com.finance.infra.export.ColumnarExporter;
+import com.finance.infra.export.Compression;
 import com.finance.infra.export.CsvExporter;
-
+import com.finance.infra.export.ExportJob;
+import com.finance.infra.export.ExportJobs;
+import com.finance.infra.importer.CsvImporter;
+import com.finance.infra.importer.CsvMapping;
+import com.finance.infra.importer.ImportResult;
+import com.finance.infra.importer.JsonImporter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.IntConsumer;
 
+import com.finance.infra.export.IncrementalExport;
 import com.finance.infra.export.JsonExporter;
+import com.finance.infra.export.JsonLinesExporter;
+import com.finance.infra.export.ReportExporter;
 import com.finance.core.model.Budget;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletView;
 
 public class FinanceCLI {
+    private static final int SUGGESTIONS_LIMIT = 3;
+    private static final int COMPLETIONS_LIMIT = 20;
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+
     private final FinanceService financeService;
     private final AuthService authService;
     private final DataStorage dataStorage;
     private final Scanner scanner;
+    private final ExportJobs exportJobs = new ExportJobs();
+    // В пакетном режиме экспорт ждет завершения задания, чтобы следующие команды видели готовый файл
+    private boolean awaitExports;
     private final CommandParser commandParser;
 
     public FinanceCLI(FinanceService financeService, AuthService authService, DataStorage dataStorage) {
@@ -52,10 +87,71 @@ public class FinanceCLI {
             }
         }
 
+        long running = exportJobs.countRunning();
+        if (running > 0) {
+            System.out.println("Ожидание завершения фоновых экспортов: " + running);
+        }
+        exportJobs.close();
+        exportJobs.runCompletions();
         dataStorage.saveData();
     }
 
+    // Пакетный режим: вывод буферизуется, сохранение выполняется раз в saveEvery команд и в конце
+    public BatchResult runBatch(BufferedReader reader, int saveEvery, boolean verbose) throws IOException {
+        PrintStream console = System.out;
+        PrintStream status = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_BUFFER_SIZE),
+                false, console.charset());
+        System.setOut(verbose ? status : new PrintStream(OutputStream.nullOutputStream()));
+
+        int lineNumber = 0;
+        int executed = 0;
+        int failed = 0;
+        long started = System.nanoTime();
+        awaitExports = true;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String input = line.trim();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+                if (input.equalsIgnoreCase("exit")) {
+                    break;
+                }
+
+                try {
+                    processCommand(input);
+                    status.println(lineNumber + "\tOK");
+                } catch (Exception e) {
+                    failed++;
+                    status.println(lineNumber + "\tERROR\t" + e.getMessage());
+                }
+                executed++;
+
+                if (saveEvery > 0 && executed % saveEvery == 0) {
+                    dataStorage.saveData();
+                }
+            }
+            dataStorage.saveData();
+        } finally {
+            awaitExports = false;
+            status.flush();
+            System.setOut(console);
+        }
+
+        BatchResult result = new BatchResult(executed, failed, (System.nanoTime() - started) / 1_000_000);
+        console.printf("Выполнено команд: %d, ошибок: %d, время: %d мс%n",
+                result.executed(), result.failed(), result.elapsedMillis());
+        return result;
+    }
+
+    public record BatchResult(int executed, int failed, long elapsedMillis) {
+    }
+
     private void processCommand(String input) {
+        exportJobs.runCompletions();
         CommandParser.ParsedCommand command = commandParser.parse(input);
 
         switch (command.command()) {
@@ -92,6 +188,21 @@ public class FinanceCLI {
             case "transactions":
                 handleTransactions();
                 break;
+            case "search":
+                handleSearch(command);
+                break;
+            case "query":
+                handleQuery(command);
+                break;
+            case "top":
+                handleTop(command);
+                break;
+            case "complete":
+                handleComplete(command);
+                break;
+            case "complete-user":
+                handleCompleteUser(command);
+                break;
             case "transfer":
                 handleTransfer(command);
                 break;
@@ -101,17 +212,47 @@ public class FinanceCLI {
             case "export-json":
                 handleJsonExport(command);
                 break;
+            case "export-columnar":
+                handleColumnarExport(command);
+                break;
+            case "jobs":
+                handleJobs();
+                break;
+            case "job-status":
+                handleJobStatus(command);
+                break;
+            case "job-cancel":
+                handleJobCancel(command);
+                break;
+            case "import":
+                handleImport(command);
+                break;
+            case "import-json":
+                handleJsonImport(command);
+                break;
             case "alerts":
                 handleAlerts();
                 break;
+            case "balance-as-of":
+                handleBalanceAsOf(command);
+                break;
             case "calculate":
                 handleCalculate(command);
                 break;
             case "near-limit":
                 handleNearLimit(command);
                 break;
+            case "begin":
+                handleBegin();
+                break;
+            case "commit":
+                handleCommit();
+                break;
+            case "rollback":
+                handleRollback();
+                break;
             default:
-                System.out.println("Неизвестная команда. Введите 'help' для списка команд.");
+                throw new IllegalArgumentException("Неизвестная команда. Введите 'help' для списка команд.");
         }
     }
 
@@ -149,6 +290,9 @@ public class FinanceCLI {
     }
 
     private void handleLogout() {
+        if (financeService.isInTransaction()) {
+            System.out.println("Незавершенная транзакция отменена, операций: " + financeService.getPendingCount());
+        }
         authService.logout();
         financeService.setUserWallet(null);
         System.out.println("Вы вышли из системы");
@@ -166,9 +310,15 @@ public class FinanceCLI {
         double amount = Double.parseDouble(command.args().get(1));
         String description = command.args().size() > 2 ? command.args().get(2) : "";
 
+        List<String> suggestions = financeService.suggestCategories(category, SUGGESTIONS_LIMIT);
         financeService.addIncome(category, amount, description);
+        if (financeService.isInTransaction()) {
+            System.out.println("Доход добавлен в транзакцию");
+            return;
+        }
         authService.saveChanges();
         System.out.println("Доход добавлен!");
+        printNewCategoryHint(category, suggestions);
     }
 
     private void handleExpense(CommandParser.ParsedCommand command) {
@@ -183,13 +333,32 @@ public class FinanceCLI {
         double amount = Double.parseDouble(command.args().get(1));
         String description = command.args().size() > 2 ? command.args().get(2) : "";
 
+        // Проверка выполняется до проведения, чтобы сам расход не смещал статистику категории
+        Optional<String> anomaly = financeService.checkExpenseAnomaly(category, amount);
+        List<String> suggestions = financeService.suggestCategories(category, SUGGESTIONS_LIMIT);
         financeService.addExpense(category, amount, description);
+        if (financeService.isInTransaction()) {
+            System.out.println("Расход добавлен в транзакцию");
+            return;
+        }
 
         authService.saveChanges();
         System.out.println("Расход добавлен!");
+        printNewCategoryHint(category, suggestions);
+        anomaly.ifPresent(alert -> {
+            System.out.println("=== АНОМАЛИЯ ===");
+            System.out.println("- " + alert);
+        });
         expenseAlert(category);
     }
 
+    private void printNewCategoryHint(String category, List<String> suggestions) {
+        if (!suggestions.isEmpty()) {
+            System.out.printf("Создана новая категория '%s'. Возможно, вы имели в виду: %s%n",
+                    category, String.join(", ", suggestions));
+        }
+    }
+
     private void expenseAlert(String category) {
         if (!financeService.getCurrentWallet().isExistsBudget(category)) {
             System.out.println("Внимание! Бюджет для данной категории отсутствует");
@@ -289,6 +458,101 @@ public class FinanceCLI {
         Formatter.printTransactionTable(transactions);
     }
 
+    private void handleSearch(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: search <term1> [term2] ...");
+            return;
+        }
+
+        var transactions = financeService.search(String.join(" ", command.args()));
+        if (transactions.isEmpty()) {
+            System.out.println("Ничего не найдено");
+            return;
+        }
+
+        Formatter.printTransactionTable(transactions);
+    }
+
+    private void handleQuery(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: query <expression>");
+            System.out.println("Пример: query category in (Еда, Такси) and amount > 500 and date >= 2026-01-01");
+            return;
+        }
+
+        // Кавычки снимаются парсером команд, поэтому составные значения возвращаются в кавычках
+        String expression = command.args().stream()
+                .map(arg -> arg.contains(" ") ? "\"" + arg + "\"" : arg)
+                .collect(java.util.stream.Collectors.joining(" "));
+        var plan = financeService.explainQuery(expression);
+        System.out.printf("План: %s (~%d строк)%n", plan.accessPath(), plan.estimatedRows());
+
+        try (var transactions = financeService.query(expression)) {
+            int count = Formatter.printTransactionTable(transactions.iterator());
+            System.out.println("Найдено: " + count);
+        }
+    }
+
+    private void handleTop(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: top <n> [category]");
+            return;
+        }
+
+        int limit = Integer.parseInt(command.args().get(0));
+        String category = command.args().size() > 1 ? command.args().get(1) : null;
+
+        var transactions = financeService.getLargestExpenses(limit, category);
+        if (transactions.isEmpty()) {
+            System.out.println("Нет расходов");
+            if (category != null) {
+                printUnknownCategoryHint(category);
+            }
+            return;
+        }
+
+        Formatter.printTransactionTable(transactions);
+    }
+
+    private void handleComplete(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        String prefix = command.args().isEmpty() ? "" : command.args().getFirst();
+        List<String> completions = financeService.completeCategory(prefix, COMPLETIONS_LIMIT);
+        if (completions.isEmpty()) {
+            System.out.println("Категории не найдены");
+            printUnknownCategoryHint(prefix);
+            return;
+        }
+        completions.forEach(System.out::println);
+    }
+
+    private void handleCompleteUser(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        String prefix = command.args().isEmpty() ? "" : command.args().getFirst();
+        List<String> completions = authService.completeUsername(prefix, COMPLETIONS_LIMIT);
+        if (completions.isEmpty()) {
+            System.out.println("Пользователи не найдены");
+            return;
+        }
+        completions.forEach(System.out::println);
+    }
+
+    private void printUnknownCategoryHint(String category) {
+        List<String> suggestions = financeService.suggestCategories(category, SUGGESTIONS_LIMIT);
+        if (!suggestions.isEmpty()) {
+            System.out.printf("Категория '%s' не найдена. Возможно, вы имели в виду: %s%n",
+                    category, String.join(", ", suggestions));
+        }
+    }
+
     private void handleTransfer(CommandParser.ParsedCommand command) {
         checkAuthentication();
 
@@ -301,7 +565,12 @@ public class FinanceCLI {
         double amount = Double.parseDouble(command.args().get(1));
         String description = command.args().size() > 2 ? command.args().get(2) : "";
         if (!authService.userExists(toUsername)) {
-            throw new IllegalArgumentException("Пользователь не найден");
+            List<String> suggestions = authService.suggestUsernames(toUsername, SUGGESTIONS_LIMIT);
+            if (suggestions.isEmpty()) {
+                throw new IllegalArgumentException("Пользователь не найден");
+            }
+            throw new IllegalArgumentException("Пользователь не найден. Возможно, вы имели в виду: "
+                    + String.join(", ", suggestions));
         }
 
         financeService.transfer(authService.getUserByUsername(toUsername).getWallet(), amount, description);
@@ -312,63 +581,293 @@ public class FinanceCLI {
     private void handleExport(CommandParser.ParsedCommand command) {
         checkAuthentication();
 
-        if (command.args().isEmpty()) {
-            System.out.println("Использование: export <filename> [type]");
-            System.out.println("Типы: transactions (по умолчанию), budgets, full");
+        List<String> args = new ArrayList<>(command.args());
+        Compression compression = extractCompression(args);
+        if (args.isEmpty()) {
+            System.out.println("Использование: export <filename> [type] [--gzip | --deflate]");
+            System.out.println("Типы: transactions (по умолчанию), budgets, full, incremental");
             return;
         }
 
-        String filename = command.args().get(0);
-        String type = command.args().size() > 1 ? command.args().get(1) : "transactions";
+        String filename = args.get(0);
+        String type = args.size() > 1 ? args.get(1) : "transactions";
 
-        if (!filename.endsWith(".csv")) {
+        if (!filename.endsWith(".csv") && !filename.endsWith(".csv" + compression.extension())) {
             filename += ".csv";
         }
+        filename = compression.withExtension(filename);
 
-        try {
-            CsvExporter exporter = new CsvExporter();
+        CsvExporter exporter = new CsvExporter(compression);
+        String target = filename;
+        Wallet wallet = financeService.getCurrentWallet();
+        switch (type.toLowerCase()) {
+            case "transactions":
+                submitExport("export " + target, target, snapshot -> exporter.exportTransactions(snapshot, target),
+                        exported -> markFullExport(exporter, wallet, target, exported));
+                break;
+            case "budgets":
+                submitExport("export " + target + " budgets", target,
+                        snapshot -> exporter.exportBudgets(snapshot, target),
+                        exported -> markFullExport(exporter, wallet, target, 0));
+                break;
+            case "full":
+                submitExport("export " + target + " full", target, snapshot -> exporter.export(snapshot, target),
+                        exported -> markFullExport(exporter, wallet, target, 0));
+                break;
+            case "incremental":
+                // Отметка экспорта меняет кошелек, поэтому инкрементальный экспорт выполняется сразу
+                try {
+                    checkNotWriting(target);
+                    printIncrementalExport(exporter.exportIncremental(wallet, target));
+                } catch (Exception e) {
+                    System.out.println("Ошибка при экспорте: " + e.getMessage());
+                }
+                break;
+            default:
+                System.out.println("Неизвестный тип экспорта: " + type);
+        }
+    }
 
-            switch (type.toLowerCase()) {
-                case "transactions":
-                    exporter.exportTransactions(financeService.getCurrentWallet(), filename);
-                    break;
-                case "budgets":
-                    exporter.exportBudgets(financeService.getCurrentWallet(), filename);
-                    break;
-                case "full":
-                    exporter.export(financeService.getCurrentWallet(), filename);
-                    break;
-                default:
-                    System.out.println("Неизвестный тип экспорта: " + type);
-                    return;
-            }
+    private void submitExport(String description, String filename, ExportJobs.Task task) {
+        submitExport(description, filename, task, null);
+    }
 
+    // Экспорт идет в фоне по снимку кошелька, снятому сейчас. onSuccess получает число транзакций снимка
+    // и выполняется в потоке команд только после успешной записи файла
+    private void submitExport(String description, String filename, ExportJobs.Task task, IntConsumer onSuccess) {
+        WalletView snapshot = financeService.getCurrentWallet().snapshot();
+        int count = snapshot.getTransactionCount();
+        ExportJob job = exportJobs.submit(description, filename, snapshot, task,
+                onSuccess != null ? () -> onSuccess.accept(count) : null);
+        if (!awaitExports) {
+            System.out.printf("Экспорт запущен в фоне, задание #%d (статус: job-status %d)%n", job.getId(), job.getId());
+            return;
+        }
+        exportJobs.await(job);
+        exportJobs.runCompletions();
+        if (job.getState() == ExportJob.State.COMPLETED) {
             System.out.println("Данные экспортированы в файл: " + filename);
+        } else {
+            throw new IllegalStateException("Ошибка при экспорте: " + job.getError());
+        }
+    }
 
-        } catch (Exception e) {
-            System.out.println("Ошибка при экспорте: " + e.getMessage());
+    // Полный экспорт переносит отметку инкрементального экспорта того же файла; отметка хранится в кошельке
+    private void markFullExport(CsvExporter exporter, Wallet wallet, String filename, int exported) {
+        exporter.markFullExport(wallet, filename, exported);
+        authService.saveChanges();
+    }
+
+    // Инкрементальный экспорт дописывает файл и не должен пересекаться с фоновой записью в него
+    private void checkNotWriting(String filename) {
+        if (exportJobs.isWriting(filename)) {
+            throw new IllegalStateException("Файл " + filename + " еще записывается фоновым экспортом");
+        }
+    }
+
+    private void handleJobs() {
+        List<ExportJob> jobs = exportJobs.list();
+        if (jobs.isEmpty()) {
+            System.out.println("Фоновых экспортов нет");
+            return;
+        }
+        jobs.forEach(this::printJob);
+    }
+
+    private void handleJobStatus(CommandParser.ParsedCommand command) {
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: job-status <id>");
+            return;
+        }
+        findJob(command.args().getFirst()).ifPresentOrElse(this::printJob,
+                () -> System.out.println("Задание не найдено: " + command.args().getFirst()));
+    }
+
+    private void handleJobCancel(CommandParser.ParsedCommand command) {
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: job-cancel <id>");
+            return;
+        }
+        Optional<ExportJob> job = findJob(command.args().getFirst());
+        if (job.isEmpty()) {
+            System.out.println("Задание не найдено: " + command.args().getFirst());
+        } else if (job.get().cancel()) {
+            System.out.printf("Задание #%d отменено%n", job.get().getId());
+        } else {
+            System.out.printf("Задание #%d уже завершено%n", job.get().getId());
+        }
+    }
+
+    private Optional<ExportJob> findJob(String id) {
+        try {
+            return exportJobs.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void printJob(ExportJob job) {
+        String state = switch (job.getState()) {
+            case RUNNING -> "выполняется";
+            case COMPLETED -> "завершено";
+            case FAILED -> "ошибка: " + job.getError();
+            case CANCELLED -> "отменено";
+        };
+        System.out.printf("#%d %s [%s] строк: %d/%d, байт: %d, время: %d мс%n", job.getId(), job.getDescription(),
+                state, job.getRows(), job.getTotalRows(), job.getBytes(), job.getElapsedMillis());
+    }
+
+    // Отметка экспорта хранится в кошельке, поэтому после выгрузки кошелек сохраняется
+    private void printIncrementalExport(IncrementalExport result) {
+        authService.saveChanges();
+        if (result.exported() == 0) {
+            System.out.println("Новых транзакций для экспорта нет");
+        } else {
+            System.out.printf("Экспортировано новых транзакций: %d, файл: %s%n", result.exported(), result.filename());
         }
     }
 
+    // Флаги --gzip и --deflate убираются из аргументов; без них экспорт идет без сжатия
+    private Compression extractCompression(List<String> args) {
+        Compression compression = Compression.NONE;
+        for (Iterator<String> it = args.iterator(); it.hasNext(); ) {
+            String arg = it.next();
+            if (arg.equals("--gzip") || arg.equals("--deflate")) {
+                compression = Compression.fromFlag(arg);
+                it.remove();
+            }
+        }
+        return compression;
+    }
+
     private void handleJsonExport(CommandParser.ParsedCommand command) {
         checkAuthentication();
 
+        List<String> args = new ArrayList<>(command.args());
+        Compression compression = extractCompression(args);
+        if (args.isEmpty()) {
+            System.out.println("Использование: export-json <filename> [--lines | --incremental] [--gzip | --deflate]");
+            return;
+        }
+
+        boolean lines = args.contains("--lines");
+        String filename = args.getFirst();
+        String extension = lines ? ".jsonl" : ".json";
+        boolean incremental = args.contains("--incremental");
+        if (lines && incremental) {
+            System.out.println("Инкрементальный экспорт пишет сегменты JSON и не сочетается с --lines");
+            return;
+        }
+
+        if (incremental) {
+            if (!filename.endsWith(extension)) {
+                filename += extension;
+            }
+            try {
+                checkNotWriting(filename);
+                printIncrementalExport(new JsonExporter(compression)
+                        .exportIncremental(financeService.getCurrentWallet(), filename));
+            } catch (Exception e) {
+                System.out.println("Ошибка при экспорте JSON: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (!filename.endsWith(extension) && !filename.endsWith(extension + compression.extension())) {
+            filename += extension;
+        }
+        filename = compression.withExtension(filename);
+
+        ReportExporter exporter = lines ? new JsonLinesExporter(compression) : new JsonExporter(compression);
+        String target = filename;
+        submitExport("export-json " + target, target, wallet -> exporter.export(wallet, target));
+    }
+
+    private void handleColumnarExport(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        List<String> args = new ArrayList<>(command.args());
+        Compression compression = extractCompression(args);
+        if (args.isEmpty()) {
+            System.out.println("Использование: export-columnar <filename> [--deflate]");
+            return;
+        }
+
+        String filename = args.getFirst();
+        if (!filename.endsWith(".fcol")) {
+            filename += ".fcol";
+        }
+
+        ColumnarExporter exporter = new ColumnarExporter(compression);
+        String target = filename;
+        submitExport("export-columnar " + target, target, wallet -> exporter.export(wallet, target));
+    }
+
+    private void handleImport(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
         if (command.args().isEmpty()) {
-            System.out.println("Использование: export-json <filename>");
+            System.out.println("Использование: import <filename> [delimiter=;] [date=0] [type=1] [category=2] "
+                    + "[amount=3] [description=4] [--keep-duplicates]");
             return;
         }
 
-        String filename = command.args().getFirst();
-        if (!filename.endsWith(".json")) {
-            filename += ".json";
+        List<String> options = new ArrayList<>(command.args().subList(1, command.args().size()));
+        boolean keepDuplicates = options.remove("--keep-duplicates");
+        CsvMapping mapping = CsvMapping.fromOptions(options);
+        ImportDeduplicator deduplicator = financeService.newImportDeduplicator();
+        try {
+            ImportResult result = new CsvImporter(mapping).importFile(Path.of(command.args().getFirst()),
+                    batch -> financeService.addTransactions(keepDuplicates ? batch : deduplicator.filter(batch)));
+            printImportResult(result, deduplicator.getDuplicates());
+        } catch (IOException e) {
+            System.out.println("Ошибка при импорте: " + e.getMessage());
+        }
+    }
+
+    private void handleJsonImport(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: import-json <filename> [--keep-duplicates]");
+            return;
         }
 
+        // Резервная копия содержит бюджеты, а они внутри транзакции не откладываются
+        if (financeService.isInTransaction()) {
+            throw new IllegalStateException("Восстановление из JSON недоступно внутри транзакции");
+        }
+        boolean keepDuplicates = command.args().contains("--keep-duplicates");
+        ImportDeduplicator deduplicator = financeService.newImportDeduplicator();
         try {
-            JsonExporter exporter = new JsonExporter();
-            exporter.exportWallet(financeService.getCurrentWallet(), filename);
-            System.out.println("Данные экспортированы в JSON файл: " + filename);
-        } catch (Exception e) {
-            System.out.println("Ошибка при экспорте JSON: " + e.getMessage());
+            ImportResult result = new JsonImporter().importFile(Path.of(command.args().getFirst()),
+                    batch -> financeService.addTransactions(keepDuplicates ? batch : deduplicator.filter(batch)),
+                    budget -> financeService.setBudget(budget.getCategory(), budget.getLimit(),
+                            budget.getWarningThreshold()));
+            printImportResult(result, deduplicator.getDuplicates());
+        } catch (IOException e) {
+            System.out.println("Ошибка при импорте JSON: " + e.getMessage());
+        }
+    }
+
+    private void printImportResult(ImportResult result, long duplicates) {
+        long added = result.imported() - duplicates;
+        if (financeService.isInTransaction()) {
+            System.out.printf("Добавлено в транзакцию: %d, дубликатов: %d, пропущено строк: %d, время: %d мс%n",
+                    added, duplicates, result.skipped(), result.elapsedMillis());
+            return;
+        }
+        authService.saveChanges();
+        System.out.printf("Импортировано: %d, дубликатов: %d, пропущено строк: %d, время: %d мс%n",
+                added, duplicates, result.skipped(), result.elapsedMillis());
+        printBudgetAlerts();
+    }
+
+    private void printBudgetAlerts() {
+        List<String> alerts = financeService.checkAlerts();
+        if (!alerts.isEmpty()) {
+            System.out.println("=== ПРЕДУПРЕЖДЕНИЯ ===");
+            alerts.forEach(alert -> System.out.println("- " + alert));
         }
     }
 
@@ -388,15 +887,52 @@ public class FinanceCLI {
         checkAuthentication();
 
         if (command.args().isEmpty()) {
-            System.out.println("Использование: calculate <category1> [category2] ...");
+            System.out.println("Использование: calculate <category1> [category2] ... [--month YYYY-MM]");
             return;
         }
 
-        Set<String> categories = new HashSet<>(command.args());
-        double total = financeService.calculateExpensesForCategories(categories);
+        Set<String> categories = new HashSet<>();
+        YearMonth month = null;
+        for (int i = 0; i < command.args().size(); i++) {
+            String arg = command.args().get(i);
+            if (arg.equals("--month") && i + 1 < command.args().size()) {
+                month = YearMonth.parse(command.args().get(++i));
+            } else {
+                categories.add(arg);
+            }
+        }
+
+        categories.forEach(this::printUnknownCategoryHint);
+        double total = financeService.calculateExpensesForCategories(categories, month);
         System.out.printf("Общие расходы по выбранным категориям: %.2f%n", total);
     }
 
+    // С хранилищем событий баланс считается по журналу на диске, иначе по транзакциям кошелька
+    private void handleBalanceAsOf(CommandParser.ParsedCommand command) {
+        checkAuthentication();
+
+        if (command.args().isEmpty()) {
+            System.out.println("Использование: balance-as-of <YYYY-MM-DD>");
+            return;
+        }
+
+        LocalDate date = LocalDate.parse(command.args().getFirst());
+        LocalDateTime asOf = date.atTime(LocalTime.MAX);
+        double balance;
+        if (dataStorage instanceof EventSourcedStorage eventStorage) {
+            dataStorage.saveData();
+            try {
+                balance = eventStorage.balanceAsOf(financeService.getCurrentWallet().getUsername(), asOf);
+            } catch (IOException e) {
+                System.out.println("Ошибка при чтении журнала: " + e.getMessage());
+                return;
+            }
+        } else {
+            balance = financeService.getBalanceAsOf(asOf);
+        }
+        System.out.printf("Баланс на %s: %.2f%n", date, balance);
+    }
+
     private void handleNearLimit(CommandParser.ParsedCommand command) {
         checkAuthentication();
 
@@ -422,6 +958,28 @@ public class FinanceCLI {
         }
     }
 
+    private void handleBegin() {
+        checkAuthentication();
+        financeService.beginTransaction();
+        System.out.println("Транзакция начата. Операции будут применены командой commit");
+    }
+
+    // Все операции транзакции применяются к кошельку разом; на диск они попадают при очередном сохранении
+    // вместе с остальными изменениями, как и результаты прочих команд
+    private void handleCommit() {
+        checkAuthentication();
+        int applied = financeService.commitTransaction();
+        authService.saveChanges();
+        System.out.println("Транзакция зафиксирована, операций: " + applied);
+        printBudgetAlerts();
+    }
+
+    private void handleRollback() {
+        checkAuthentication();
+        int discarded = financeService.rollbackTransaction();
+        System.out.println("Транзакция отменена, операций: " + discarded);
+    }
+
     private void checkAuthentication() {
         if (!authService.isLoggedIn()) {
             throw new IllegalStateException("Для выполнения этой команды необходимо войти в систему");
@@ -445,15 +1003,37 @@ public class FinanceCLI {
               remove-budget <category>                    - Удалить бюджет
               transfer <username> <amount> [description]  - Перевод пользователю
             
+            Транзакции:
+              begin                         - Начать транзакцию
+              commit                        - Применить операции транзакции
+              rollback                      - Отменить операции транзакции
+            
             Отчеты и аналитика:
               stats                         - Показать статистику
               transactions                  - Показать все транзакции
+              search <term1> ...            - Поиск транзакций по описанию и категории
+              query <expression>            - Фильтр, например: category in (Еда) and amount > 500
+              top <n> [category]            - Крупнейшие расходы
+              complete <prefix>             - Дополнение названия категории
+              complete-user <prefix>        - Дополнение имени пользователя
               alerts                        - Показать предупреждения
-              calculate <category1> ...     - Посчитать расходы по категориям
+              calculate <category1> ... [--month YYYY-MM] - Посчитать расходы по категориям
+              balance-as-of <YYYY-MM-DD>    - Баланс на конец указанного дня
               budgets                       - Список всех бюджетов
               near-limit [threshold]        - Бюджеты близкие к лимиту
-              export <filename> [type]      - Экспорт в CSV. Типы: transactions (по умолчанию), budgets, full
-              export-json <filename>        - Экспорт в JSON
+              export <filename> [type]      - Экспорт в CSV. Типы: transactions (по умолчанию), budgets, full,
+                                              incremental (дописать только новые транзакции)
+              export-json <filename> [--lines | --incremental] - Экспорт в JSON (--lines: JSON Lines,
+                                              --incremental: новые транзакции отдельным сегментом)
+                                              Для обоих экспортов --gzip или --deflate сжимают файл
+              export-columnar <filename> [--deflate] - Колоночный двоичный экспорт для аналитики
+                                              Экспорт (кроме incremental) идет в фоне по снимку кошелька
+              jobs                          - Список фоновых экспортов
+              job-status <id>               - Прогресс экспорта: строки и байты
+              job-cancel <id>               - Отменить экспорт
+              import <filename> [col=N ...] - Импорт из CSV (колонки: date, type, category, amount, description)
+                                              Повторные строки пропускаются, --keep-duplicates отключает проверку
+              import-json <filename>        - Восстановление из файла export-json
             
             Системные:
               help                          - Показать эту справку
@@ -462,10 +1042,127 @@ public class FinanceCLI {
     }
 
     public static void main(String[] args) {
-        FileDataStorage fileDataStorage = new FileDataStorage("finance_data.ser");
+        if (args.length > 0 && args[0].equals("--event-store")) {
+            if (args.length < 2) {
+                System.out.println("Использование: --event-store <directory> [другие флаги]");
+                return;
+            }
+            EventSourcedStorage eventStorage;
+            try {
+                eventStorage = openEventStore(args[1]);
+            } catch (IllegalStateException e) {
+                System.out.println(e.getMessage());
+                System.exit(1);
+                return;
+            }
+            start(eventStorage, Arrays.copyOfRange(args, 2, args.length));
+            return;
+        }
+
+        start(new FileDataStorage("finance_data.ser"), args);
+    }
+
+    // При первом запуске хранилище событий заполняется пользователями из файла данных
+    private static EventSourcedStorage openEventStore(String directory) {
+        EventSourcedStorage eventStorage = new EventSourcedStorage(directory);
+        if (eventStorage.findAll().isEmpty() && Files.exists(Path.of("finance_data.ser"))) {
+            try {
+                int imported = eventStorage.importFrom(new FileDataStorage("finance_data.ser"));
+                eventStorage.saveData();
+                System.out.println("Перенесено пользователей в хранилище событий: " + imported);
+            } catch (IOException e) {
+                System.out.println("Ошибка при переносе данных: " + e.getMessage());
+            }
+        }
+        return eventStorage;
+    }
+
+    private static <S extends UserRepository & DataStorage> void start(S storage, String[] args) {
+        if (args.length > 0 && args[0].equals("--analytics")) {
+            analytics(storage, args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--export-all")) {
+            exportAll(storage, args);
+            return;
+        }
+
         FinanceService financeService = new FinanceService();
-        AuthService authService = new AuthService(fileDataStorage);
-        FinanceCLI cli = new FinanceCLI(financeService, authService, fileDataStorage);
+        AuthService authService = new AuthService(storage);
+        FinanceCLI cli = new FinanceCLI(financeService, authService, storage);
+
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(cli, args);
+            return;
+        }
+
         cli.run();
     }
+
+    // --analytics [top]
+    private static void analytics(UserRepository storage, String[] args) {
+        int topSpenders = 10;
+        if (args.length > 1) {
+            try {
+                topSpenders = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                topSpenders = -1;
+            }
+            if (topSpenders < 0) {
+                System.out.println("Использование: --analytics [число пользователей в рейтинге, не меньше 0]");
+                return;
+            }
+        }
+        Formatter.printGlobalReport(new AnalyticsService(storage).generateGlobalReport(topSpenders));
+    }
+
+    // --export-all <archive.zip|directory>
+    private static void exportAll(UserRepository storage, String[] args) {
+        if (args.length < 2) {
+            System.out.println("Использование: --export-all <archive.zip|directory>");
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            List<ArchivePartition> partitions = new ArchiveExporter(storage).exportAll(Path.of(args[1]));
+            long transactions = partitions.stream().mapToLong(ArchivePartition::transactions).sum();
+            System.out.printf("Экспортировано пользователей: %d, транзакций: %d за %d мс в %s%n", partitions.size(),
+                    transactions, (System.nanoTime() - started) / 1_000_000, args[1]);
+        } catch (IOException e) {
+            System.out.println("Ошибка при экспорте: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --batch <file|-> [--save-every N] [--verbose]
+    private static void runBatch(FinanceCLI cli, String[] args) {
+        if (args.length < 2) {
+            System.out.println("Использование: --batch <file|-> [--save-every N] [--verbose]");
+            return;
+        }
+
+        int saveEvery = 0;
+        boolean verbose = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--save-every") && i + 1 < args.length) {
+                saveEvery = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--verbose")) {
+                verbose = true;
+            }
+        }
+
+        try (BufferedReader reader = args[1].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            BatchResult result = cli.runBatch(reader, saveEvery, verbose);
+            if (result.failed() > 0) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении файла команд: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.finance.cli;
 
 import com.finance.core.model.Budget;
 import com.finance.core.service.FinancialReport;
+import com.finance.core.service.GlobalReport;
+import com.finance.core.stats.QuantileSketch;
 
 import java.util.Comparator;
 import java.util.Map;
@@ -39,6 +41,22 @@ public class Formatter {
                     );
         }
 
+        printDistributions(report.getExpenseDistributions());
+
+        if (!report.getTopMerchantsBySpend().isEmpty()) {
+            System.out.println("\nТОП ПОЛУЧАТЕЛЕЙ ПО СУММЕ:");
+            System.out.println("-".repeat(40));
+            report.getTopMerchantsBySpend().forEach(hitter ->
+                    System.out.printf("  %-20s: %,10.2f руб.%n", hitter.description(), hitter.estimate())
+            );
+
+            System.out.println("\nТОП ПОЛУЧАТЕЛЕЙ ПО ЧАСТОТЕ:");
+            System.out.println("-".repeat(40));
+            report.getTopMerchantsByFrequency().forEach(hitter ->
+                    System.out.printf("  %-20s: %10.0f раз%n", hitter.description(), hitter.estimate())
+            );
+        }
+
         if (!report.getBudgets().isEmpty()) {
             System.out.println("\nБЮДДЖЕТЫ:");
             System.out.println("-".repeat(75));
@@ -72,9 +90,13 @@ public class Formatter {
     }
 
     public static void printTransactionTable(java.util.List<com.finance.core.model.Transaction> transactions) {
-        if (transactions.isEmpty()) {
+        printTransactionTable(transactions.iterator());
+    }
+
+    public static int printTransactionTable(java.util.Iterator<com.finance.core.model.Transaction> transactions) {
+        if (!transactions.hasNext()) {
             System.out.println("Нет транзакций для отображения");
-            return;
+            return 0;
         }
 
         System.out.println("\n" + "=".repeat(80));
@@ -82,7 +104,10 @@ public class Formatter {
                 "Дата", "Тип", "Категория", "Сумма", "Описание");
         System.out.println("=".repeat(80));
 
-        for (com.finance.core.model.Transaction transaction : transactions) {
+        int count = 0;
+        while (transactions.hasNext()) {
+            com.finance.core.model.Transaction transaction = transactions.next();
+            count++;
             String typeStr = transaction.getType() == com.finance.core.model.TransactionType.INCOME ?
                     "Доход" : "Расход";
             String amountStr = String.format("%,.2f", transaction.getAmount());
@@ -95,5 +120,70 @@ public class Formatter {
                     transaction.getDescription());
         }
         System.out.println("=".repeat(80));
+        return count;
+    }
+
+    public static void printGlobalReport(GlobalReport report) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("СВОДНАЯ АНАЛИТИКА ПО ВСЕМ ПОЛЬЗОВАТЕЛЯМ");
+        System.out.println("=".repeat(60));
+
+        System.out.printf("%-25s: %12d%n", "Пользователей", report.getUserCount());
+        System.out.printf("%-25s: %,12.2f руб.%n", "Общий доход", report.getTotalIncome());
+        System.out.printf("%-25s: %,12.2f руб.%n", "Общие расходы", report.getTotalExpenses());
+
+        if (!report.getExpensePercentiles().isEmpty()) {
+            System.out.println("\nРАСХОДЫ НА ПОЛЬЗОВАТЕЛЯ:");
+            System.out.println("-".repeat(40));
+            report.getExpensePercentiles().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry ->
+                            System.out.printf("  %-20s: %,10.2f руб.%n",
+                                    "p" + entry.getKey(), entry.getValue())
+                    );
+        }
+
+        if (!report.getExpensesByCategory().isEmpty()) {
+            System.out.println("\nРАСХОДЫ ПО КАТЕГОРИЯМ:");
+            System.out.println("-".repeat(40));
+            report.getExpensesByCategory().entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .forEach(entry ->
+                            System.out.printf("  %-20s: %,10.2f руб.%n",
+                                    entry.getKey(), entry.getValue())
+                    );
+        }
+
+        printDistributions(report.getExpenseDistributions());
+
+        if (!report.getTopSpenders().isEmpty()) {
+            System.out.println("\nКРУПНЕЙШИЕ РАСХОДЫ:");
+            System.out.println("-".repeat(40));
+            report.getTopSpenders().forEach(spending ->
+                    System.out.printf("  %-20s: %,10.2f руб.%n",
+                            spending.username(), spending.expenses())
+            );
+        }
+
+        System.out.println("=".repeat(60));
+    }
+
+    private static void printDistributions(Map<String, QuantileSketch> distributions) {
+        if (distributions.isEmpty()) {
+            return;
+        }
+
+        System.out.println("\nРАЗМЕР РАСХОДОВ ПО КАТЕГОРИЯМ:");
+        System.out.println("-".repeat(60));
+        System.out.printf("  %-20s %12s %12s %12s%n", "Категория", "Медиана", "p90", "p99");
+        distributions.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry ->
+                        System.out.printf("  %-20s %,12.2f %,12.2f %,12.2f%n",
+                                entry.getKey(),
+                                entry.getValue().getMedian(),
+                                entry.getValue().quantile(0.9),
+                                entry.getValue().quantile(0.99))
+                );
     }
 }
@@ -0,0 +1,208 @@
+package com.finance.core.index;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Индексируемый skip list по ключу (сумма по убыванию, порядковый номер по возрастанию)
+public class AmountIndex implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_LEVEL = 32;
+
+    private transient Node head;
+    private transient int level;
+    private transient int size;
+    private transient long randomState;
+
+    public AmountIndex() {
+        init();
+    }
+
+    private void init() {
+        this.head = new Node(0, -1, MAX_LEVEL);
+        this.level = 1;
+        this.size = 0;
+        this.randomState = 0x2545F4914F6CDD1DL;
+    }
+
+    public void add(double amount, int ordinal) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], amount, ordinal)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node node = new Node(amount, ordinal, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Порядковые номера n крупнейших сумм
+    public int[] top(int n) {
+        int[] result = new int[Math.min(Math.max(n, 0), size)];
+        Node x = head.next[0];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x.ordinal;
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    public long count(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        return Math.max(0, rankOfLowerBound(min, minInclusive) - rankOfUpperBound(max, maxInclusive));
+    }
+
+    // Номера транзакций с суммой в диапазоне, от большей суммы к меньшей
+    public int[] range(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        int[] result = new int[(int) count(min, minInclusive, max, maxInclusive)];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && aboveMax(x.next[i].amount, max, maxInclusive)) {
+                x = x.next[i];
+            }
+        }
+        x = x.next[0];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x.ordinal;
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Node current = head.next[0];
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                int ordinal = current.ordinal;
+                current = current.next[0];
+                return ordinal;
+            }
+        };
+    }
+
+    // Количество узлов с суммой больше верхней границы диапазона
+    private int rankOfUpperBound(double max, boolean inclusive) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && aboveMax(x.next[i].amount, max, inclusive)) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    // Количество узлов с суммой, не меньшей нижней границы диапазона
+    private int rankOfLowerBound(double min, boolean inclusive) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (inclusive ? x.next[i].amount >= min : x.next[i].amount > min)) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    private static boolean aboveMax(double amount, double max, boolean inclusive) {
+        return inclusive ? amount > max : amount >= max;
+    }
+
+    private static boolean precedes(Node node, double amount, int ordinal) {
+        return node.amount > amount || (node.amount == amount && node.ordinal < ordinal);
+    }
+
+    private int randomLevel() {
+        int result = 1;
+        while (result < MAX_LEVEL) {
+            randomState ^= randomState << 13;
+            randomState ^= randomState >>> 7;
+            randomState ^= randomState << 17;
+            if ((randomState & 3) != 0) {
+                break;
+            }
+            result++;
+        }
+        return result;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (Node x = head.next[0]; x != null; x = x.next[0]) {
+            out.writeDouble(x.amount);
+            out.writeInt(x.ordinal);
+        }
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            add(in.readDouble(), in.readInt());
+        }
+    }
+
+    private static final class Node {
+        private final double amount;
+        private final int ordinal;
+        private final Node[] next;
+        private final int[] span;
+
+        Node(double amount, int ordinal, int level) {
+            this.amount = amount;
+            this.ordinal = ordinal;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+// Фильтр Блума над готовыми 64-битными хешами; позиции получаются двойным хешированием
+public class BloomFilter implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private long size;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.capacity = expectedInsertions;
+    }
+
+    public void add(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        size++;
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long size() { return size; }
+    public long getCapacity() { return capacity; }
+    public int getHashCount() { return hashCount; }
+    public long getBitCount() { return bitCount; }
+
+    public boolean isSaturated() {
+        return size > capacity;
+    }
+
+    // Финализатор MurmurHash3: перемешивает биты, второй хеш для двойного хеширования берется из него
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
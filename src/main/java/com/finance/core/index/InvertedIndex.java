@@ -0,0 +1,66 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+public class InvertedIndex implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, PostingList> postings;
+
+    public InvertedIndex() {
+        this.postings = new HashMap<>();
+    }
+
+    public void add(int ordinal, String... texts) {
+        for (String text : texts) {
+            for (String term : tokenize(text)) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(ordinal);
+            }
+        }
+    }
+
+    public int[] search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+
+        PostingList[] lists = new PostingList[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        return PostingList.intersect(lists);
+    }
+
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                String term = token.toString();
+                if (!tokens.contains(term)) {
+                    tokens.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
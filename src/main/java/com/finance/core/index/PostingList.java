@@ -0,0 +1,130 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Возрастающая последовательность порядковых номеров, сжатая разностями в varint
+public class PostingList implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private byte[] data;
+    private int length;
+    private int size;
+    private int last;
+
+    public PostingList() {
+        this.data = new byte[8];
+        this.last = -1;
+    }
+
+    public void add(int ordinal) {
+        if (ordinal < last) {
+            throw new IllegalArgumentException("Ordinals must be added in increasing order");
+        }
+        if (ordinal == last) {
+            return;
+        }
+        int delta = ordinal - last;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = ordinal;
+        size++;
+    }
+
+    public int size() { return size; }
+    public int sizeInBytes() { return length; }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        Cursor cursor = cursor();
+        for (int i = 0; i < size; i++) {
+            result[i] = cursor.next();
+        }
+        return result;
+    }
+
+    // Пересечение списков: обход самого короткого с продвижением остальных курсоров
+    public static int[] intersect(PostingList... lists) {
+        if (lists.length == 0) {
+            return new int[0];
+        }
+        PostingList[] sorted = lists.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size, b.size));
+
+        Cursor[] cursors = new Cursor[sorted.length];
+        int[] current = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            cursors[i] = sorted[i].cursor();
+            current[i] = -1;
+        }
+
+        int[] result = new int[sorted[0].size];
+        int count = 0;
+        Cursor driver = cursors[0];
+        candidates:
+        while (driver.hasNext()) {
+            int candidate = driver.next();
+            for (int i = 1; i < cursors.length; i++) {
+                current[i] = cursors[i].advanceTo(candidate, current[i]);
+                if (current[i] < 0) {
+                    break candidates;
+                }
+                if (current[i] != candidate) {
+                    continue candidates;
+                }
+            }
+            result[count++] = candidate;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public final class Cursor {
+        private int position;
+        private int remaining = size;
+        private int value = -1;
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public int next() {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            remaining--;
+            value += delta;
+            return value;
+        }
+
+        // Возвращает первое значение >= target (начиная с текущего) или -1, если список исчерпан
+        int advanceTo(int target, int current) {
+            if (current >= target) {
+                return current;
+            }
+            while (hasNext()) {
+                int next = next();
+                if (next >= target) {
+                    return next;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+// Префиксное дерево без учета регистра; в конечных узлах хранится исходное написание
+public class PrefixTrie implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Node root;
+    private int size;
+
+    public PrefixTrie() {
+        this.root = new Node();
+    }
+
+    public void add(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrCreate(Character.toLowerCase(word.charAt(i)));
+        }
+        if (node.word == null) {
+            size++;
+        }
+        node.word = word;
+    }
+
+    public boolean contains(String word) {
+        Node node = find(word);
+        return node != null && node.word != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        Node node = find(prefix == null ? "" : prefix);
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    // Поиск по расстоянию Левенштейна с отсечением ветвей, где минимум строки превышает порог
+    public List<String> suggest(String word, int maxDistance, int limit) {
+        String target = word.toLowerCase(Locale.ROOT);
+        int[] firstRow = new int[target.length() + 1];
+        for (int i = 0; i <= target.length(); i++) {
+            firstRow[i] = i;
+        }
+
+        List<Suggestion> found = new ArrayList<>();
+        for (int i = 0; i < root.size; i++) {
+            search(root.children[i], root.keys[i], target, firstRow, maxDistance, found);
+        }
+
+        found.sort(Comparator.comparingInt(Suggestion::distance).thenComparing(Suggestion::word));
+        return found.stream().limit(limit).map(Suggestion::word).toList();
+    }
+
+    private void search(Node node, char letter, String target, int[] previousRow, int maxDistance,
+                        List<Suggestion> found) {
+        int columns = target.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int cost = target.charAt(i - 1) == letter ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), previousRow[i - 1] + cost);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        if (node.word != null && row[columns - 1] <= maxDistance) {
+            found.add(new Suggestion(node.word, row[columns - 1]));
+        }
+        if (rowMin <= maxDistance) {
+            for (int i = 0; i < node.size; i++) {
+                search(node.children[i], node.keys[i], target, row, maxDistance, found);
+            }
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(prefix.charAt(i)));
+        }
+        return node;
+    }
+
+    private void collect(Node node, List<String> result, int limit) {
+        if (result.size() >= limit) {
+            return;
+        }
+        if (node.word != null) {
+            result.add(node.word);
+        }
+        for (int i = 0; i < node.size && result.size() < limit; i++) {
+            collect(node.children[i], result, limit);
+        }
+    }
+
+    private record Suggestion(String word, int distance) {
+    }
+
+    private static final class Node implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private String word;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node child = new Node();
+            keys[index] = key;
+            children[index] = child;
+            size++;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Сжатое множество неотрицательных int: старшие 16 бит - ключ контейнера, младшие - значение в контейнере
+public class RoaringBitmap implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+    }
+
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative");
+        }
+        char key = (char) (value >>> 16);
+        int index;
+        // Частый случай: значения добавляются по возрастанию в последний контейнер
+        if (size > 0 && keys[size - 1] == key) {
+            index = size - 1;
+        } else {
+            index = findKey(key);
+            if (index < 0) {
+                index = -index - 1;
+                insertContainer(index, key, new ArrayContainer());
+            }
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = findKey((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public IntStream stream() {
+        IntStream.Builder builder = IntStream.builder();
+        forEach(builder::add);
+        return builder.build();
+    }
+
+    // k-путевое слияние по ключам контейнеров: контейнеры с одним ключом объединяются за один проход,
+    // без промежуточных копий растущего результата
+    public static RoaringBitmap or(Iterable<RoaringBitmap> bitmaps) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingInt(Cursor::key));
+        for (RoaringBitmap bitmap : bitmaps) {
+            if (bitmap.size > 0) {
+                queue.add(new Cursor(bitmap));
+            }
+        }
+
+        RoaringBitmap result = new RoaringBitmap();
+        List<Container> group = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            char key = queue.peek().key();
+            group.clear();
+            while (!queue.isEmpty() && queue.peek().key() == key) {
+                Cursor cursor = queue.poll();
+                group.add(cursor.container());
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            result.appendContainer(key, group.size() == 1 ? group.getFirst().copy() : union(group));
+        }
+        return result;
+    }
+
+    private static Container union(List<Container> group) {
+        BitmapContainer union = new BitmapContainer();
+        for (Container container : group) {
+            if (container instanceof BitmapContainer bitmap) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    union.words[i] |= bitmap.words[i];
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) container;
+                for (int i = 0; i < array.cardinality; i++) {
+                    union.words[array.values[i] >>> 6] |= 1L << array.values[i];
+                }
+            }
+        }
+        int cardinality = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            cardinality += Long.bitCount(union.words[i]);
+        }
+        union.cardinality = cardinality;
+        return cardinality > ARRAY_LIMIT ? union : union.toArray();
+    }
+
+    private static final class Cursor {
+        private final RoaringBitmap bitmap;
+        private int index;
+
+        Cursor(RoaringBitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        char key() {
+            return bitmap.keys[index];
+        }
+
+        Container container() {
+            return bitmap.containers[index];
+        }
+
+        boolean advance() {
+            return ++index < bitmap.size;
+        }
+    }
+
+    public static RoaringBitmap or(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j >= right.size || (i < left.size && left.keys[i] < right.keys[j])) {
+                result.appendContainer(left.keys[i], left.containers[i].copy());
+                i++;
+            } else if (i >= left.size || right.keys[j] < left.keys[i]) {
+                result.appendContainer(right.keys[j], right.containers[j].copy());
+                j++;
+            } else {
+                result.appendContainer(left.keys[i], left.containers[i].or(right.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (right.keys[j] < left.keys[i]) {
+                j++;
+            } else {
+                Container container = left.containers[i].and(right.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.appendContainer(left.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private int findKey(char key) {
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void appendContainer(char key, Container container) {
+        insertContainer(size, key, container);
+    }
+
+    private interface Container extends Serializable {
+        Container add(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        void forEach(int high, IntConsumer consumer);
+
+        Container or(Container other);
+
+        Container and(Container other);
+
+        Container copy();
+
+        default BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            forEach(0, value -> bitmap.add((char) value));
+            return bitmap;
+        }
+    }
+
+    private static final class ArrayContainer implements Container {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public Container add(char value) {
+            int index;
+            if (cardinality == 0 || values[cardinality - 1] < value) {
+                index = cardinality;
+            } else {
+                index = Arrays.binarySearch(values, 0, cardinality, value);
+                if (index >= 0) {
+                    return this;
+                }
+                index = -index - 1;
+            }
+            if (cardinality >= ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        public Container or(Container other) {
+            Container result = other.copy();
+            for (int i = 0; i < cardinality; i++) {
+                result = result.add(values[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public Container and(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result.add(values[i]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(cardinality, 4));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        public Container add(char value) {
+            long mask = 1L << value;
+            int index = value >>> 6;
+            if ((words[index] & mask) == 0) {
+                words[index] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer consumer) {
+            for (int index = 0; index < BITMAP_WORDS; index++) {
+                long word = words[index];
+                while (word != 0) {
+                    consumer.accept(high | (index << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof BitmapContainer bitmap) {
+                int cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= bitmap.words[i];
+                    cardinality += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = cardinality;
+                return result;
+            }
+            other.forEach(0, value -> result.add((char) value));
+            return result;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                BitmapContainer result = new BitmapContainer();
+                int cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] = words[i] & bitmap.words[i];
+                    cardinality += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = cardinality;
+                return cardinality > ARRAY_LIMIT ? result : result.toArray();
+            }
+            return other.and(this);
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITMAP_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        private Container toArray() {
+            ArrayContainer array = new ArrayContainer();
+            forEach(0, value -> array.add((char) value));
+            return array;
+        }
+
+        @Override
+        public BitmapContainer toBitmap() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.finance.core.index;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Ключи времени по порядковым номерам; пока вставки идут по времени, диапазон - это отрезок номеров.
+// Секунды и наносекунды хранятся раздельно: одно число в наносекундах переполняется за пределами 1677-2262 годов
+public class TimeIndex implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private long[] seconds;
+    private int[] nanos;
+    private int size;
+    private boolean ordered;
+    // Номера, упорядоченные по времени, для неупорядоченных вставок. Покрывают первые sortedCount номеров;
+    // новые номера сортируются отдельно и сливаются с готовой частью
+    private transient int[] sortedOrdinals;
+    private transient int sortedCount;
+
+    public TimeIndex() {
+        this.seconds = new long[16];
+        this.nanos = new int[16];
+        this.ordered = true;
+    }
+
+    public void add(int ordinal, LocalDateTime time) {
+        if (ordinal != size) {
+            throw new IllegalArgumentException("Ordinals must be added sequentially");
+        }
+        if (size == seconds.length) {
+            seconds = Arrays.copyOf(seconds, size * 2);
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        seconds[size] = time.toEpochSecond(ZoneOffset.UTC);
+        nanos[size] = time.getNano();
+        if (size > 0 && compare(size, size - 1) < 0) {
+            ordered = false;
+        }
+        size++;
+    }
+
+    public int countInRange(LocalDateTime from, LocalDateTime toExclusive) {
+        if (ordered) {
+            return Math.max(0, upper(null, toExclusive) - lower(null, from));
+        }
+        int[] order = sorted();
+        return Math.max(0, upper(order, toExclusive) - lower(order, from));
+    }
+
+    // Номера транзакций в диапазоне [from, toExclusive), в порядке возрастания
+    public IntStream ordinalsInRange(LocalDateTime from, LocalDateTime toExclusive) {
+        if (ordered) {
+            int lo = lower(null, from);
+            return IntStream.range(lo, Math.max(lo, upper(null, toExclusive)));
+        }
+
+        int[] order = sorted();
+        int lo = lower(order, from);
+        int hi = Math.max(lo, upper(order, toExclusive));
+        int[] ordinals = Arrays.copyOfRange(order, lo, hi);
+        Arrays.sort(ordinals);
+        return Arrays.stream(ordinals);
+    }
+
+    // Самый поздний ключ; null для пустого индекса
+    public LocalDateTime latest() {
+        if (size == 0) {
+            return null;
+        }
+        int ordinal = ordered ? size - 1 : sorted()[size - 1];
+        return LocalDateTime.ofEpochSecond(seconds[ordinal], nanos[ordinal], ZoneOffset.UTC);
+    }
+
+    public boolean isOrdered() { return ordered; }
+    public int size() { return size; }
+
+    // Индекс прежнего формата (одно число на ключ) после чтения нужно построить заново
+    public boolean needsRebuild() {
+        return seconds == null || nanos == null;
+    }
+
+    private int[] sorted() {
+        if (sortedOrdinals == null || sortedCount < size) {
+            int[] tail = new int[size - sortedCount];
+            for (int i = 0; i < tail.length; i++) {
+                tail[i] = sortedCount + i;
+            }
+            sortOrdinals(tail, new int[tail.length], 0, tail.length);
+            sortedOrdinals = sortedOrdinals == null ? tail : merge(sortedOrdinals, sortedCount, tail);
+            sortedCount = size;
+        }
+        return sortedOrdinals;
+    }
+
+    private int[] merge(int[] left, int leftCount, int[] right) {
+        int[] result = new int[leftCount + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < leftCount && j < right.length) {
+            result[k++] = compare(right[j], left[i]) < 0 ? right[j++] : left[i++];
+        }
+        while (i < leftCount) {
+            result[k++] = left[i++];
+        }
+        while (j < right.length) {
+            result[k++] = right[j++];
+        }
+        return result;
+    }
+
+    // Устойчивая сортировка слиянием по времени без упаковки номеров
+    private void sortOrdinals(int[] ordinals, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortOrdinals(ordinals, buffer, from, mid);
+        sortOrdinals(ordinals, buffer, mid, to);
+        if (compare(ordinals[mid - 1], ordinals[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(ordinals, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || i < mid && compare(buffer[i], buffer[j]) <= 0) {
+                ordinals[k] = buffer[i++];
+            } else {
+                ordinals[k] = buffer[j++];
+            }
+        }
+    }
+
+    // Первая позиция с ключом не меньше time; order == null - позиции совпадают с номерами
+    private int lower(int[] order, LocalDateTime time) {
+        return time != null ? lowerBound(order, time.toEpochSecond(ZoneOffset.UTC), time.getNano()) : 0;
+    }
+
+    private int upper(int[] order, LocalDateTime toExclusive) {
+        return toExclusive != null ? lower(order, toExclusive) : size;
+    }
+
+    private int lowerBound(int[] order, long second, int nano) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int ordinal = order != null ? order[mid] : mid;
+            if (compare(ordinal, second, nano) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int compare(int a, int b) {
+        return compare(a, seconds[b], nanos[b]);
+    }
+
+    private int compare(int ordinal, long second, int nano) {
+        int bySecond = Long.compare(seconds[ordinal], second);
+        return bySecond != 0 ? bySecond : Integer.compare(nanos[ordinal], nano);
+    }
+}
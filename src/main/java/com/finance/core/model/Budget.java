@@ -1,9 +1,14 @@
 package com.finance.core.model;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.Objects;
 
 public class Budget implements Serializable {
+    // Совпадает с UID, который вычислялся до появления copy(): файлы данных прежних версий остаются читаемыми
+    @Serial
+    private static final long serialVersionUID = -5755621400599163051L;
+
     private final String category;
     private double limit;
     private double spent;
@@ -34,6 +39,13 @@ public class Budget implements Serializable {
         }
     }
 
+    // Копия для снимка кошелька
+    Budget copy() {
+        Budget copy = new Budget(category, limit, warningThreshold);
+        copy.spent = spent;
+        return copy;
+    }
+
     public void addSpending(double amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Spending amount cannot be negative");
@@ -1,11 +1,16 @@
 package com.finance.core.model;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
 
 public class Transaction implements Serializable {
+    // UID исходной версии класса: без него новые конструкторы меняют вычисляемый UID и старые файлы не читаются
+    @Serial
+    private static final long serialVersionUID = -4477101654719987598L;
+
     private final String id;
     private final String category;
     private final double amount;
@@ -14,11 +19,22 @@ public class Transaction implements Serializable {
     private final String description;
 
     public Transaction(String category, double amount, TransactionType type, String description) {
-        this.id = UUID.randomUUID().toString();
+        this(category, amount, type, description, LocalDateTime.now());
+    }
+
+    public Transaction(String category, double amount, TransactionType type, String description,
+                       LocalDateTime date) {
+        this(UUID.randomUUID().toString(), category, amount, type, description, date);
+    }
+
+    // Для восстановления из резервной копии с сохранением исходного идентификатора
+    public Transaction(String id, String category, double amount, TransactionType type, String description,
+                       LocalDateTime date) {
+        this.id = Objects.requireNonNull(id, "Id cannot be null");
         this.category = Objects.requireNonNull(category, "Category cannot be null");
         this.amount = amount;
         this.type = Objects.requireNonNull(type, "Transaction type cannot be null");
-        this.date = LocalDateTime.now();
+        this.date = Objects.requireNonNull(date, "Date cannot be null");
         this.description = description != null ? description : "";
 
         validate();
@@ -0,0 +1,22 @@
+package com.finance.core.model;
+
+import com.finance.core.index.BloomFilter;
+
+// Содержательный ключ транзакции для поиска дубликатов: день, сумма в копейках, категория и описание
+public record TransactionFingerprint(long epochDay, long cents, String category, String description) {
+
+    public static TransactionFingerprint of(Transaction transaction) {
+        return new TransactionFingerprint(
+                transaction.getDate().toLocalDate().toEpochDay(),
+                Math.round(transaction.getAmount() * 100),
+                transaction.getCategory(),
+                transaction.getDescription());
+    }
+
+    public long hash64() {
+        long hash = epochDay;
+        hash = BloomFilter.mix(hash * 31 + cents);
+        hash = BloomFilter.mix(hash * 31 + category.hashCode());
+        return BloomFilter.mix(hash * 31 + description.hashCode());
+    }
+}
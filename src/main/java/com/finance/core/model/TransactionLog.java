@@ -0,0 +1,118 @@
+package com.finance.core.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Журнал транзакций только на добавление. Транзакции лежат в блоках фиксированного размера, которые
+// не перемещаются при росте: растет только каталог блоков. Поэтому снимок - это ссылка на текущий каталог
+// и длина, без копирования. Писатель дописывает только позиции за длиной снимка, и снимок их не читает
+final class TransactionLog extends AbstractList<Transaction> implements RandomAccess, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private transient Transaction[][] chunks;
+    private transient int size;
+
+    TransactionLog() {
+        this.chunks = new Transaction[4][];
+    }
+
+    TransactionLog(Collection<Transaction> transactions) {
+        this();
+        addAll(transactions);
+    }
+
+    @Override
+    public boolean add(Transaction transaction) {
+        int chunk = size >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Transaction[CHUNK_SIZE];
+        }
+        chunks[chunk][size & CHUNK_MASK] = transaction;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        Objects.checkIndex(index, size);
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    void ensureCapacity(int capacity) {
+        int needed = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (needed > chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+        }
+    }
+
+    // Неизменяемое представление первых size транзакций; стоимость не зависит от длины журнала
+    List<Transaction> snapshot() {
+        return new Frozen(chunks, size);
+    }
+
+    private static final class Frozen extends AbstractList<Transaction> implements RandomAccess {
+        private final Transaction[][] chunks;
+        private final int size;
+
+        Frozen(Transaction[][] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size);
+            return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(get(i));
+        }
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid transaction count: " + count);
+        }
+        chunks = new Transaction[4][];
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            add((Transaction) in.readObject());
+        }
+    }
+}
@@ -1,30 +1,185 @@
 package com.finance.core.model;
 
+import com.finance.core.index.AmountIndex;
+import com.finance.core.index.BloomFilter;
+import com.finance.core.index.InvertedIndex;
+import com.finance.core.index.PrefixTrie;
+import com.finance.core.index.RoaringBitmap;
+import com.finance.core.index.TimeIndex;
+import com.finance.core.query.QueryPlan;
+import com.finance.core.query.TransactionQuery;
+import com.finance.core.stats.HeavyHitters;
+import com.finance.core.stats.QuantileSketch;
+import com.finance.core.stats.RunningStats;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-public class Wallet implements Serializable {
+public class Wallet implements WalletView, Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
+    private static final double ANOMALY_SIGMAS = 3.0;
+    private static final long ANOMALY_MIN_SAMPLES = 5;
+    private static final int FINGERPRINT_FILTER_CAPACITY = 1024;
+    private static final double FINGERPRINT_FALSE_POSITIVE_RATE = 0.01;
 
     private final String username;
     private double balance;
-    private final List<Transaction> transactions;
-    private final Map<String, Budget> budgets;
-    private final Set<String> categories;
+    private List<Transaction> transactions;
+    private Map<String, Budget> budgets;
+    private Set<String> categories;
+    // Бюджеты и категории отданы снимку: перед изменением кошелек заводит свои копии
+    private transient boolean sharedWithSnapshot;
+    // Неподтвержденные события; null, пока хранилище не включило запись
+    private transient List<WalletEvent> uncommittedEvents;
+    // Порядковый номер первой еще не выгруженной транзакции для каждой цели инкрементального экспорта
+    private Map<String, Integer> exportWatermarks;
+    private Map<String, QuantileSketch> incomeDistributions;
+    private Map<String, QuantileSketch> expenseDistributions;
+    private HeavyHitters merchants;
+    private Map<String, RunningStats> incomeStatistics;
+    private Map<String, RunningStats> expenseStatistics;
+    private InvertedIndex textIndex;
+    private Map<String, RoaringBitmap> categoryBitmaps;
+    private Map<TransactionType, RoaringBitmap> typeBitmaps;
+    private Map<YearMonth, RoaringBitmap> monthBitmaps;
+    private double[] amountColumn;
+    private Map<TransactionType, AmountIndex> amountIndexes;
+    private TimeIndex timeIndex;
+    private PrefixTrie categoryTrie;
+    private BloomFilter fingerprintFilter;
 
     public Wallet(String username) {
         this.username = Objects.requireNonNull(username, "Username cannot be null");
         this.balance = 0.0;
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionLog();
         this.budgets = new HashMap<>();
         this.categories = new HashSet<>();
+        this.exportWatermarks = new HashMap<>();
+        resetAggregates();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // В старых файлах транзакции хранятся в ArrayList
+        if (!(transactions instanceof TransactionLog)) {
+            transactions = new TransactionLog(transactions);
+        }
+        // Кошельки, сохраненные до появления агрегатов, пересчитываются по истории транзакций
+        if (isAggregatesMissing()) {
+            resetAggregates();
+            for (int ordinal = 0; ordinal < transactions.size(); ordinal++) {
+                updateAggregates(ordinal, transactions.get(ordinal));
+            }
+            budgets.keySet().forEach(categoryTrie::add);
+        }
+        if (exportWatermarks == null) {
+            exportWatermarks = new HashMap<>();
+        }
+    }
+
+    private boolean isAggregatesMissing() {
+        return incomeDistributions == null || expenseDistributions == null || merchants == null
+                || incomeStatistics == null || expenseStatistics == null || textIndex == null
+                || categoryBitmaps == null || typeBitmaps == null || monthBitmaps == null
+                || amountColumn == null || amountIndexes == null || timeIndex == null || timeIndex.needsRebuild()
+                || categoryTrie == null || fingerprintFilter == null;
+    }
+
+    private void resetAggregates() {
+        this.incomeDistributions = new HashMap<>();
+        this.expenseDistributions = new HashMap<>();
+        this.merchants = new HeavyHitters();
+        this.incomeStatistics = new HashMap<>();
+        this.expenseStatistics = new HashMap<>();
+        this.textIndex = new InvertedIndex();
+        this.categoryBitmaps = new HashMap<>();
+        this.typeBitmaps = new EnumMap<>(TransactionType.class);
+        this.monthBitmaps = new HashMap<>();
+        this.amountColumn = new double[16];
+        this.amountIndexes = new EnumMap<>(TransactionType.class);
+        this.timeIndex = new TimeIndex();
+        this.categoryTrie = new PrefixTrie();
+        this.fingerprintFilter = new BloomFilter(
+                Math.max(FINGERPRINT_FILTER_CAPACITY, 2L * transactions.size()), FINGERPRINT_FALSE_POSITIVE_RATE);
+    }
+
+    private void updateAggregates(int ordinal, Transaction transaction) {
+        statisticsFor(transaction.getType())
+                .computeIfAbsent(transaction.getCategory(), c -> new RunningStats())
+                .add(transaction.getAmount());
+        indexTransaction(ordinal, transaction);
+    }
+
+    // Построчные индексы; статистика категорий обновляется отдельно, чтобы пакет мог слить ее один раз
+    private void indexTransaction(int ordinal, Transaction transaction) {
+        Map<String, QuantileSketch> distributions = transaction.getType() == TransactionType.INCOME
+                ? incomeDistributions : expenseDistributions;
+        distributions.computeIfAbsent(transaction.getCategory(), c -> new QuantileSketch())
+                .update(transaction.getAmount());
+
+        if (transaction.getType() == TransactionType.EXPENSE) {
+            merchants.add(transaction.getDescription(), transaction.getAmount());
+        }
+
+        textIndex.add(ordinal, transaction.getDescription(), transaction.getCategory());
+        categoryBitmaps.computeIfAbsent(transaction.getCategory(), c -> new RoaringBitmap()).add(ordinal);
+        typeBitmaps.computeIfAbsent(transaction.getType(), t -> new RoaringBitmap()).add(ordinal);
+        monthBitmaps.computeIfAbsent(YearMonth.from(transaction.getDate()), m -> new RoaringBitmap()).add(ordinal);
+        ensureAmountCapacity(ordinal + 1);
+        amountColumn[ordinal] = transaction.getAmount();
+        amountIndexes.computeIfAbsent(transaction.getType(), t -> new AmountIndex())
+                .add(transaction.getAmount(), ordinal);
+        timeIndex.add(ordinal, transaction.getDate());
+        categoryTrie.add(transaction.getCategory());
+
+        fingerprintFilter.add(TransactionFingerprint.of(transaction).hash64());
+        if (fingerprintFilter.isSaturated()) {
+            rebuildFingerprintFilter(ordinal + 1);
+        }
+    }
+
+    // Переполненный фильтр пересоздается с удвоенной емкостью по первым count транзакциям
+    private void rebuildFingerprintFilter(int count) {
+        fingerprintFilter = new BloomFilter(2 * fingerprintFilter.getCapacity(), FINGERPRINT_FALSE_POSITIVE_RATE);
+        for (int i = 0; i < count; i++) {
+            fingerprintFilter.add(TransactionFingerprint.of(transactions.get(i)).hash64());
+        }
+    }
+
+    private void ensureAmountCapacity(int capacity) {
+        if (capacity > amountColumn.length) {
+            amountColumn = Arrays.copyOf(amountColumn, Math.max(capacity, amountColumn.length * 2));
+        }
+    }
+
+    private Map<String, RunningStats> statisticsFor(TransactionType type) {
+        return type == TransactionType.INCOME ? incomeStatistics : expenseStatistics;
     }
 
     public void addTransaction(Transaction transaction) {
+        post(transaction);
+        record(new WalletEvent.TransactionPosted(transaction));
+    }
+
+    // Сторона перевода: применяется как обычная транзакция, но в журнал попадает с контрагентом
+    public void addTransfer(String counterparty, Transaction transaction) {
+        Objects.requireNonNull(counterparty, "Counterparty cannot be null");
+        post(transaction);
+        record(new WalletEvent.TransferPosted(counterparty, transaction));
+    }
+
+    private void post(Transaction transaction) {
         Objects.requireNonNull(transaction, "Transaction cannot be null");
+        detachFromSnapshot();
 
         transactions.add(transaction);
 
@@ -40,76 +195,457 @@ public class Wallet implements Serializable {
         }
 
         categories.add(transaction.getCategory());
+        updateAggregates(transactions.size() - 1, transaction);
+    }
+
+    // Все транзакции проверяются до применения, поэтому пакет применяется целиком или не применяется вовсе.
+    // Бюджеты и статистика категорий обновляются один раз на категорию, хранилище растет один раз на пакет
+    public void addTransactions(Collection<Transaction> batch) {
+        Objects.requireNonNull(batch, "Transactions cannot be null");
+        for (Transaction transaction : batch) {
+            Objects.requireNonNull(transaction, "Transaction cannot be null");
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        detachFromSnapshot();
+
+        Map<String, RunningStats> incomeBatch = new HashMap<>();
+        Map<String, RunningStats> expenseBatch = new HashMap<>();
+        for (Transaction transaction : batch) {
+            Map<String, RunningStats> target = transaction.getType() == TransactionType.INCOME
+                    ? incomeBatch : expenseBatch;
+            target.computeIfAbsent(transaction.getCategory(), c -> new RunningStats()).add(transaction.getAmount());
+        }
+
+        int first = transactions.size();
+        ((TransactionLog) transactions).ensureCapacity(first + batch.size());
+        ensureAmountCapacity(first + batch.size());
+        transactions.addAll(batch);
+
+        int ordinal = first;
+        for (Transaction transaction : batch) {
+            indexTransaction(ordinal++, transaction);
+        }
+
+        incomeBatch.forEach((category, stats) -> {
+            incomeStatistics.computeIfAbsent(category, c -> new RunningStats()).merge(stats);
+            balance += stats.getSum();
+        });
+        expenseBatch.forEach((category, stats) -> {
+            expenseStatistics.computeIfAbsent(category, c -> new RunningStats()).merge(stats);
+            balance -= stats.getSum();
+            Budget budget = budgets.get(category);
+            if (budget != null) {
+                budget.addSpending(stats.getSum());
+            }
+        });
+        categories.addAll(incomeBatch.keySet());
+        categories.addAll(expenseBatch.keySet());
+        record(new WalletEvent.TransactionsPosted(new ArrayList<>(batch)));
+    }
+
+    public void apply(WalletEvent event) {
+        switch (event) {
+            case WalletEvent.TransactionPosted posted -> addTransaction(posted.transaction());
+            case WalletEvent.TransactionsPosted posted -> addTransactions(posted.transactions());
+            case WalletEvent.TransferPosted transfer -> addTransfer(transfer.counterparty(), transfer.transaction());
+            case WalletEvent.BudgetSet budget -> {
+                if (Double.isNaN(budget.warningThreshold())) {
+                    setBudget(budget.category(), budget.limit());
+                } else {
+                    setBudget(budget.category(), budget.limit(), budget.warningThreshold());
+                }
+            }
+            case WalletEvent.BudgetUpdated budget -> updateBudget(budget.category(), budget.limit());
+            case WalletEvent.BudgetRemoved budget -> removeBudget(budget.category());
+            case WalletEvent.ExportWatermarkSet watermark -> setExportWatermark(watermark.target(), watermark.ordinal());
+        }
+    }
+
+    // Хранилище событий включает запись после загрузки и забирает накопленные события при сохранении
+    public void startRecordingEvents() {
+        if (uncommittedEvents == null) {
+            uncommittedEvents = new ArrayList<>();
+        }
+    }
+
+    public List<WalletEvent> drainEvents() {
+        if (uncommittedEvents == null || uncommittedEvents.isEmpty()) {
+            return List.of();
+        }
+        List<WalletEvent> events = uncommittedEvents;
+        uncommittedEvents = new ArrayList<>();
+        return events;
+    }
+
+    // Незаписанные события без удаления: хранилище снимает их через commitEvents только после записи в журнал
+    public List<WalletEvent> pendingEvents() {
+        return uncommittedEvents == null ? List.of() : List.copyOf(uncommittedEvents);
+    }
+
+    public void commitEvents(int count) {
+        if (count < 0 || count > (uncommittedEvents == null ? 0 : uncommittedEvents.size())) {
+            throw new IllegalArgumentException("Cannot commit " + count + " events");
+        }
+        if (count > 0) {
+            uncommittedEvents.subList(0, count).clear();
+        }
+    }
+
+    private void record(WalletEvent event) {
+        if (uncommittedEvents != null) {
+            uncommittedEvents.add(event);
+        }
+    }
+
+    // Отрицательный ответ точен; положительный требует проверки по countFingerprints
+    public boolean mightContainFingerprint(TransactionFingerprint fingerprint) {
+        return fingerprintFilter.mightContain(fingerprint.hash64());
+    }
+
+    // Число вхождений каждого отпечатка среди первых count транзакций
+    public Map<TransactionFingerprint, Integer> countFingerprints(int count) {
+        int limit = Math.min(count, transactions.size());
+        Map<TransactionFingerprint, Integer> counts = new HashMap<>(Math.max(16, limit * 4 / 3 + 1));
+        for (int i = 0; i < limit; i++) {
+            counts.merge(TransactionFingerprint.of(transactions.get(i)), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public int getExportWatermark(String target) {
+        return exportWatermarks.getOrDefault(target, 0);
+    }
+
+    public void setExportWatermark(String target, int ordinal) {
+        if (ordinal < 0 || ordinal > transactions.size()) {
+            throw new IllegalArgumentException("Watermark is out of range: " + ordinal);
+        }
+        exportWatermarks.put(target, ordinal);
+        record(new WalletEvent.ExportWatermarkSet(target, ordinal));
     }
 
     public void setBudget(String category, double limit) {
+        detachFromSnapshot();
         Budget budget = budgets.get(category);
         if (budget == null) {
-            budget = new Budget(category, limit);
-            budget.addSpending(calculateExpensesForCategories(new HashSet<>(Collections.singletonList(category))));
-            budgets.put(category, budget);
+            addBudget(new Budget(category, limit));
         } else {
             budget.setLimit(limit);
         }
+        record(new WalletEvent.BudgetSet(category, limit, Double.NaN));
+    }
+
+    public void setBudget(String category, double limit, double warningThreshold) {
+        detachFromSnapshot();
+        Budget budget = budgets.get(category);
+        if (budget == null) {
+            addBudget(new Budget(category, limit, warningThreshold));
+        } else {
+            budget.setLimit(limit);
+            budget.setWarningThreshold(warningThreshold);
+        }
+        record(new WalletEvent.BudgetSet(category, limit, warningThreshold));
+    }
+
+    private void addBudget(Budget budget) {
+        budget.addSpending(calculateExpensesForCategories(new HashSet<>(Collections.singletonList(budget.getCategory()))));
+        budgets.put(budget.getCategory(), budget);
+        categoryTrie.add(budget.getCategory());
     }
 
     public void updateBudget(String category, double newLimit) {
+        detachFromSnapshot();
         Budget budget = budgets.get(category);
         if (budget != null) {
             budget.setLimit(newLimit);
         } else {
             throw new IllegalArgumentException("Budget for category '" + category + "' not found");
         }
+        record(new WalletEvent.BudgetUpdated(category, newLimit));
     }
 
     public void removeBudget(String category) {
-        budgets.remove(category);
+        detachFromSnapshot();
+        if (budgets.remove(category) != null) {
+            record(new WalletEvent.BudgetRemoved(category));
+        }
+    }
+
+    private void detachFromSnapshot() {
+        if (!sharedWithSnapshot) {
+            return;
+        }
+        Map<String, Budget> copy = new HashMap<>();
+        budgets.forEach((category, budget) -> copy.put(category, budget.copy()));
+        budgets = copy;
+        categories = new HashSet<>(categories);
+        sharedWithSnapshot = false;
     }
 
+    @Override
     public double getTotalIncome() {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return sumOf(incomeStatistics);
     }
 
+    @Override
     public double getTotalExpenses() {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return sumOf(expenseStatistics);
     }
 
     public Map<String, Double> getIncomeByCategory() {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+        return sumsByCategory(incomeStatistics);
     }
 
     public Map<String, Double> getExpensesByCategory() {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+        return sumsByCategory(expenseStatistics);
+    }
+
+    private static double sumOf(Map<String, RunningStats> statistics) {
+        double total = 0.0;
+        for (RunningStats stats : statistics.values()) {
+            total += stats.getSum();
+        }
+        return total;
+    }
+
+    private static Map<String, Double> sumsByCategory(Map<String, RunningStats> statistics) {
+        Map<String, Double> sums = new HashMap<>();
+        statistics.forEach((category, stats) -> sums.put(category, stats.getSum()));
+        return sums;
+    }
+
+    public Map<String, RunningStats> getCategoryStatistics(TransactionType type) {
+        Map<String, RunningStats> copy = new HashMap<>();
+        statisticsFor(type).forEach((category, stats) -> copy.put(category, new RunningStats(stats)));
+        return copy;
+    }
+
+    public Optional<String> checkExpenseAnomaly(String category, double amount) {
+        RunningStats stats = expenseStatistics.get(category);
+        if (stats == null || !stats.isOutlier(amount, ANOMALY_SIGMAS, ANOMALY_MIN_SAMPLES)) {
+            return Optional.empty();
+        }
+        return Optional.of(String.format(
+                "Необычно крупный расход в категории '%s': %.2f (среднее %.2f, отклонение %.2f)",
+                category, amount, stats.getMean(), stats.getStandardDeviation()));
     }
 
     public double calculateExpensesForCategories(Set<String> categories) {
+        return calculateExpensesForCategories(categories, null);
+    }
+
+    // Объединение битмапов категорий, пересечение с типом и месяцем, затем сумма по маске
+    public double calculateExpensesForCategories(Set<String> categories, YearMonth month) {
         if (categories == null || categories.isEmpty()) {
             throw new IllegalArgumentException("Categories cannot be null or empty");
         }
 
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .filter(t -> categories.contains(t.getCategory()))
-                .mapToDouble(Transaction::getAmount)
+        RoaringBitmap mask = RoaringBitmap.and(categoryMask(categories), bitmapOrEmpty(typeBitmaps.get(TransactionType.EXPENSE)));
+        if (month != null) {
+            mask = RoaringBitmap.and(mask, bitmapOrEmpty(monthBitmaps.get(month)));
+        }
+        return maskedSum(mask);
+    }
+
+    private RoaringBitmap categoryMask(Set<String> categories) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (String category : categories) {
+            RoaringBitmap bitmap = categoryBitmaps.get(category);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return bitmaps.size() == 1 ? bitmaps.getFirst() : RoaringBitmap.or(bitmaps);
+    }
+
+    private static RoaringBitmap bitmapOrEmpty(RoaringBitmap bitmap) {
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    // Баланс по транзакциям с датой не позже asOf: номера берутся из индекса времени, суммы - из столбца
+    public double getBalanceAsOf(LocalDateTime asOf) {
+        LocalDateTime toExclusive = asOf.equals(LocalDateTime.MAX) ? null : asOf.plusNanos(1);
+        RoaringBitmap income = bitmapOrEmpty(typeBitmaps.get(TransactionType.INCOME));
+        double[] amounts = amountColumn;
+        return timeIndex.ordinalsInRange(null, toExclusive)
+                .mapToDouble(ordinal -> income.contains(ordinal) ? amounts[ordinal] : -amounts[ordinal])
                 .sum();
     }
 
+    public LocalDateTime getLatestTransactionDate() {
+        return timeIndex.latest();
+    }
+
+    // DoubleStream.sum суммирует с компенсацией, как и прежний подсчет по списку транзакций
+    private double maskedSum(RoaringBitmap mask) {
+        double[] amounts = amountColumn;
+        return mask.stream().mapToDouble(ordinal -> amounts[ordinal]).sum();
+    }
+
+    public Map<String, QuantileSketch> getAmountDistributions(TransactionType type) {
+        Map<String, QuantileSketch> distributions = type == TransactionType.INCOME
+                ? incomeDistributions : expenseDistributions;
+        Map<String, QuantileSketch> copy = new HashMap<>();
+        distributions.forEach((category, sketch) -> copy.put(category, new QuantileSketch(sketch)));
+        return copy;
+    }
+
+    public List<HeavyHitters.Hitter> getTopMerchantsBySpend(int limit) {
+        return merchants.topBySpend(limit);
+    }
+
+    public List<HeavyHitters.Hitter> getTopMerchantsByFrequency(int limit) {
+        return merchants.topByFrequency(limit);
+    }
+
+    public List<Transaction> search(String query) {
+        int[] ordinals = textIndex.search(query);
+        List<Transaction> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(transactions.get(ordinal));
+        }
+        return result;
+    }
+
+    public QueryPlan plan(TransactionQuery query) {
+        if (query.isEmpty()) {
+            return new QueryPlan(QueryPlan.AccessPath.EMPTY, 0);
+        }
+
+        QueryPlan best = new QueryPlan(QueryPlan.AccessPath.FULL_SCAN, transactions.size());
+        if (query.getCategories().isPresent()) {
+            long rows = 0;
+            for (String category : query.getCategories().get()) {
+                RoaringBitmap bitmap = categoryBitmaps.get(category);
+                rows += bitmap != null ? bitmap.cardinality() : 0;
+            }
+            best = cheaper(best, new QueryPlan(QueryPlan.AccessPath.CATEGORY_INDEX, rows));
+        }
+        if (query.hasDateRange()) {
+            long rows = timeIndex.countInRange(query.getDateFrom(), query.getDateTo());
+            best = cheaper(best, new QueryPlan(QueryPlan.AccessPath.TIME_INDEX, rows));
+        }
+        if (query.hasAmountRange()) {
+            long rows = 0;
+            for (AmountIndex index : amountIndexesFor(query)) {
+                rows += index.count(query.getAmountMin(), query.isAmountMinInclusive(),
+                        query.getAmountMax(), query.isAmountMaxInclusive());
+            }
+            best = cheaper(best, new QueryPlan(QueryPlan.AccessPath.AMOUNT_INDEX, rows));
+        }
+        return best;
+    }
+
+    // Кандидаты выбираются по самому дешевому индексу, остальные условия проверяются лениво
+    public Stream<Transaction> query(TransactionQuery query) {
+        IntStream ordinals = switch (plan(query).accessPath()) {
+            case EMPTY -> IntStream.empty();
+            case CATEGORY_INDEX -> categoryOrdinals(query);
+            case TIME_INDEX -> timeIndex.ordinalsInRange(query.getDateFrom(), query.getDateTo());
+            case AMOUNT_INDEX -> amountOrdinals(query);
+            default -> IntStream.range(0, transactions.size());
+        };
+        return ordinals.mapToObj(transactions::get).filter(query::matches);
+    }
+
+    private static QueryPlan cheaper(QueryPlan current, QueryPlan candidate) {
+        return candidate.estimatedRows() < current.estimatedRows() ? candidate : current;
+    }
+
+    private IntStream categoryOrdinals(TransactionQuery query) {
+        RoaringBitmap mask = categoryMask(query.getCategories().orElseThrow());
+        if (query.getType().isPresent()) {
+            mask = RoaringBitmap.and(mask, bitmapOrEmpty(typeBitmaps.get(query.getType().get())));
+        }
+        return mask.stream();
+    }
+
+    private List<AmountIndex> amountIndexesFor(TransactionQuery query) {
+        return query.getType()
+                .map(type -> Optional.ofNullable(amountIndexes.get(type)).stream().toList())
+                .orElseGet(() -> List.copyOf(amountIndexes.values()));
+    }
+
+    private IntStream amountOrdinals(TransactionQuery query) {
+        return amountIndexesFor(query).stream()
+                .flatMapToInt(index -> Arrays.stream(index.range(query.getAmountMin(), query.isAmountMinInclusive(),
+                        query.getAmountMax(), query.isAmountMaxInclusive())))
+                .sorted();
+    }
+
+    public List<Transaction> getLargestExpenses(int limit, String category) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        AmountIndex index = amountIndexes.get(TransactionType.EXPENSE);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+
+        List<Transaction> result = new ArrayList<>(Math.min(limit, index.size()));
+        if (category == null) {
+            for (int ordinal : index.top(limit)) {
+                result.add(transactions.get(ordinal));
+            }
+            return result;
+        }
+
+        RoaringBitmap categoryMask = categoryBitmaps.get(category);
+        if (categoryMask == null) {
+            return result;
+        }
+        PrimitiveIterator.OfInt ordinals = index.iterator();
+        while (ordinals.hasNext() && result.size() < limit) {
+            int ordinal = ordinals.nextInt();
+            if (categoryMask.contains(ordinal)) {
+                result.add(transactions.get(ordinal));
+            }
+        }
+        return result;
+    }
+
+    public List<Transaction> getExpensesAbove(double threshold) {
+        AmountIndex index = amountIndexes.get(TransactionType.EXPENSE);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+
+        int[] ordinals = index.range(threshold, false, Double.POSITIVE_INFINITY, true);
+        List<Transaction> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(transactions.get(ordinal));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions() {
+        return transactions.stream();
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions(int from, int to) {
+        return transactions.subList(from, to).stream();
+    }
+
+    @Override
+    public int getTransactionCount() {
+        return transactions.size();
+    }
+
+    public List<String> completeCategory(String prefix, int limit) {
+        return categoryTrie.complete(prefix, limit);
+    }
+
+    public List<String> suggestCategories(String category, int limit) {
+        if (categoryTrie.contains(category)) {
+            return List.of();
+        }
+        return categoryTrie.suggest(category, category.length() <= 4 ? 1 : 2, limit);
+    }
+
     public List<String> checkBudgetAlerts() {
         List<String> alerts = new ArrayList<>();
 
@@ -138,9 +674,24 @@ public class Wallet implements Serializable {
         return budgets.containsKey(category);
     }
 
+    // Снимок для долгих читателей (экспорт в фоне). Не копирует историю: журнал транзакций отдает
+    // представление по текущей длине, а бюджеты и категории копируются кошельком только при следующем изменении
+    public WalletSnapshot snapshot() {
+        sharedWithSnapshot = true;
+        return new WalletSnapshot(username, balance, getTotalIncome(), getTotalExpenses(),
+                ((TransactionLog) transactions).snapshot(), budgets, categories);
+    }
+
+    @Override
     public String getUsername() { return username; }
+    @Override
     public double getBalance() { return balance; }
+    @Override
     public List<Transaction> getTransactions() { return new ArrayList<>(transactions); }
+    @Override
+    public List<Transaction> getTransactions(int from, int to) { return new ArrayList<>(transactions.subList(from, to)); }
+    @Override
     public Map<String, Budget> getBudgets() { return new HashMap<>(budgets); }
+    @Override
     public Set<String> getCategories() { return new HashSet<>(categories); }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.finance.core.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+// Изменение состояния кошелька. Wallet.apply применяет событие так же, как соответствующий метод,
+// поэтому состояние восстанавливается повторным применением журнала событий
+public sealed interface WalletEvent extends Serializable {
+
+    record TransactionPosted(Transaction transaction) implements WalletEvent {
+    }
+
+    record TransactionsPosted(List<Transaction> transactions) implements WalletEvent {
+        public TransactionsPosted {
+            transactions = List.copyOf(transactions);
+        }
+    }
+
+    // Одна сторона перевода: расход отправителя или доход получателя
+    record TransferPosted(String counterparty, Transaction transaction) implements WalletEvent {
+    }
+
+    // NaN в warningThreshold - порог не указан: у нового бюджета он по умолчанию, у существующего не меняется
+    record BudgetSet(String category, double limit, double warningThreshold) implements WalletEvent {
+    }
+
+    record BudgetUpdated(String category, double limit) implements WalletEvent {
+    }
+
+    record BudgetRemoved(String category) implements WalletEvent {
+    }
+
+    // Позиция инкрементального экспорта; без нее после восстановления экспорт повторил бы выгруженные строки
+    record ExportWatermarkSet(String target, int ordinal) implements WalletEvent {
+    }
+}
@@ -0,0 +1,68 @@
+package com.finance.core.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Неизменяемое состояние кошелька на момент вызова Wallet.snapshot(). История, бюджеты и категории разделяются
+// с кошельком без копирования; кошелек их больше не меняет, поэтому снимок можно читать из другого потока
+public final class WalletSnapshot implements WalletView {
+    private final String username;
+    private final double balance;
+    private final double totalIncome;
+    private final double totalExpenses;
+    private final List<Transaction> transactions;
+    private final Map<String, Budget> budgets;
+    private final Set<String> categories;
+
+    WalletSnapshot(String username, double balance, double totalIncome, double totalExpenses,
+                   List<Transaction> transactions, Map<String, Budget> budgets, Set<String> categories) {
+        this.username = username;
+        this.balance = balance;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.transactions = transactions;
+        this.budgets = budgets;
+        this.categories = categories;
+    }
+
+    private static Map<String, Budget> copyBudgets(Map<String, Budget> budgets) {
+        Map<String, Budget> copy = new HashMap<>();
+        budgets.forEach((category, budget) -> copy.put(category, budget.copy()));
+        return copy;
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions() {
+        return transactions.stream();
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions(int from, int to) {
+        return transactions.subList(from, to).stream();
+    }
+
+    @Override
+    public String getUsername() { return username; }
+    @Override
+    public double getBalance() { return balance; }
+    @Override
+    public double getTotalIncome() { return totalIncome; }
+    @Override
+    public double getTotalExpenses() { return totalExpenses; }
+    @Override
+    public int getTransactionCount() { return transactions.size(); }
+    @Override
+    public List<Transaction> getTransactions() { return new ArrayList<>(transactions); }
+    @Override
+    public List<Transaction> getTransactions(int from, int to) { return new ArrayList<>(transactions.subList(from, to)); }
+    // Копии, чтобы вызывающий код не мог изменить снимок
+    @Override
+    public Map<String, Budget> getBudgets() { return copyBudgets(budgets); }
+    @Override
+    public Set<String> getCategories() { return new HashSet<>(categories); }
+}
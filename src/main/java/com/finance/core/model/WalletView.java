@@ -0,0 +1,31 @@
+package com.finance.core.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Чтение состояния кошелька без изменения: реализуют сам кошелек и его снимки
+public interface WalletView {
+    String getUsername();
+
+    double getBalance();
+
+    double getTotalIncome();
+
+    double getTotalExpenses();
+
+    int getTransactionCount();
+
+    List<Transaction> getTransactions();
+
+    List<Transaction> getTransactions(int from, int to);
+
+    Stream<Transaction> streamTransactions();
+
+    Stream<Transaction> streamTransactions(int from, int to);
+
+    Map<String, Budget> getBudgets();
+
+    Set<String> getCategories();
+}
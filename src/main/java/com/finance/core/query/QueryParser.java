@@ -0,0 +1,193 @@
+package com.finance.core.query;
+
+import com.finance.core.model.TransactionType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Грамматика: условие ("and" условие)*, где условие - поле оператор значение или поле in (значения)
+public class QueryParser {
+
+    public TransactionQuery parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Запрос не может быть пустым");
+        }
+
+        List<String> tokens = tokenize(expression);
+        TransactionQuery query = new TransactionQuery();
+        int position = 0;
+        while (true) {
+            position = parseCondition(tokens, position, query);
+            if (position == tokens.size()) {
+                return query;
+            }
+            if (!tokens.get(position).equalsIgnoreCase("and")) {
+                throw new IllegalArgumentException("Ожидалось 'and', получено: " + tokens.get(position));
+            }
+            position++;
+        }
+    }
+
+    private int parseCondition(List<String> tokens, int position, TransactionQuery query) {
+        String field = token(tokens, position++).toLowerCase(Locale.ROOT);
+        String operator = token(tokens, position++).toLowerCase(Locale.ROOT);
+
+        if (operator.equals("in")) {
+            if (!field.equals("category")) {
+                throw new IllegalArgumentException("Оператор 'in' поддерживается только для category");
+            }
+            List<String> values = new ArrayList<>();
+            expect(tokens, position++, "(");
+            while (true) {
+                values.add(token(tokens, position++));
+                String next = token(tokens, position++);
+                if (next.equals(")")) {
+                    break;
+                }
+                if (!next.equals(",")) {
+                    throw new IllegalArgumentException("Ожидалось ',' или ')', получено: " + next);
+                }
+            }
+            query.restrictCategories(values);
+            return position;
+        }
+
+        String value = token(tokens, position++);
+        switch (field) {
+            case "category" -> applyCategory(query, operator, value);
+            case "type" -> applyType(query, operator, value);
+            case "amount" -> applyAmount(query, operator, parseAmount(value));
+            case "date" -> applyDate(query, operator, value);
+            default -> throw new IllegalArgumentException("Неизвестное поле: " + field);
+        }
+        return position;
+    }
+
+    private void applyCategory(TransactionQuery query, String operator, String value) {
+        switch (operator) {
+            case "=" -> query.restrictCategories(List.of(value));
+            case "!=" -> query.excludeCategory(value);
+            default -> throw unsupported("category", operator);
+        }
+    }
+
+    private void applyType(TransactionQuery query, String operator, String value) {
+        if (!operator.equals("=")) {
+            throw unsupported("type", operator);
+        }
+        query.restrictType(switch (value.toLowerCase(Locale.ROOT)) {
+            case "income", "доход" -> TransactionType.INCOME;
+            case "expense", "расход" -> TransactionType.EXPENSE;
+            default -> throw new IllegalArgumentException("Неизвестный тип транзакции: " + value);
+        });
+    }
+
+    private void applyAmount(TransactionQuery query, String operator, double amount) {
+        switch (operator) {
+            case "=" -> {
+                query.restrictAmountMin(amount, true);
+                query.restrictAmountMax(amount, true);
+            }
+            case ">" -> query.restrictAmountMin(amount, false);
+            case ">=" -> query.restrictAmountMin(amount, true);
+            case "<" -> query.restrictAmountMax(amount, false);
+            case "<=" -> query.restrictAmountMax(amount, true);
+            default -> throw unsupported("amount", operator);
+        }
+    }
+
+    private void applyDate(TransactionQuery query, String operator, String value) {
+        LocalDateTime start;
+        LocalDateTime next;
+        try {
+            if (value.indexOf('T') >= 0) {
+                start = LocalDateTime.parse(value);
+                next = start.plusNanos(1);
+            } else {
+                start = LocalDate.parse(value).atStartOfDay();
+                next = start.plusDays(1);
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный формат даты: " + value);
+        }
+
+        switch (operator) {
+            case "=" -> {
+                query.restrictDateFrom(start);
+                query.restrictDateTo(next);
+            }
+            case ">" -> query.restrictDateFrom(next);
+            case ">=" -> query.restrictDateFrom(start);
+            case "<" -> query.restrictDateTo(start);
+            case "<=" -> query.restrictDateTo(next);
+            default -> throw unsupported("date", operator);
+        }
+    }
+
+    private double parseAmount(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный формат суммы: " + value);
+        }
+    }
+
+    private IllegalArgumentException unsupported(String field, String operator) {
+        return new IllegalArgumentException("Оператор '" + operator + "' не поддерживается для " + field);
+    }
+
+    private void expect(List<String> tokens, int position, String expected) {
+        String actual = token(tokens, position);
+        if (!actual.equals(expected)) {
+            throw new IllegalArgumentException("Ожидалось '" + expected + "', получено: " + actual);
+        }
+    }
+
+    private String token(List<String> tokens, int position) {
+        if (position >= tokens.size()) {
+            throw new IllegalArgumentException("Неожиданный конец запроса");
+        }
+        return tokens.get(position);
+    }
+
+    static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"' || c == '\'') {
+                int end = expression.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Незакрытая кавычка в запросе");
+                }
+                tokens.add(expression.substring(i + 1, end));
+                i = end + 1;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                int end = i + 1 < expression.length() && expression.charAt(i + 1) == '=' ? i + 2 : i + 1;
+                String operator = expression.substring(i, end);
+                if (operator.equals("!")) {
+                    throw new IllegalArgumentException("Неизвестный оператор: !");
+                }
+                tokens.add(operator);
+                i = end;
+            } else {
+                int start = i;
+                while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+                        && "()<>=!,\"'".indexOf(expression.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+}
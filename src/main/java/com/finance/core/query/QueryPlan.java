@@ -0,0 +1,8 @@
+package com.finance.core.query;
+
+public record QueryPlan(AccessPath accessPath, long estimatedRows) {
+
+    public enum AccessPath {
+        FULL_SCAN, TIME_INDEX, CATEGORY_INDEX, AMOUNT_INDEX, EMPTY
+    }
+}
@@ -0,0 +1,117 @@
+package com.finance.core.query;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Конъюнкция условий, нормализованная в множества категорий и диапазоны
+public class TransactionQuery {
+    private Set<String> categories;
+    private final Set<String> excludedCategories;
+    private TransactionType type;
+    private boolean typeConflict;
+    private double amountMin;
+    private boolean amountMinInclusive;
+    private double amountMax;
+    private boolean amountMaxInclusive;
+    private LocalDateTime dateFrom;
+    private LocalDateTime dateTo;
+
+    TransactionQuery() {
+        this.excludedCategories = new HashSet<>();
+        this.amountMin = Double.NEGATIVE_INFINITY;
+        this.amountMinInclusive = true;
+        this.amountMax = Double.POSITIVE_INFINITY;
+        this.amountMaxInclusive = true;
+    }
+
+    public static TransactionQuery all() {
+        return new TransactionQuery();
+    }
+
+    void restrictCategories(Collection<String> allowed) {
+        if (categories == null) {
+            categories = new HashSet<>(allowed);
+        } else {
+            categories.retainAll(allowed);
+        }
+    }
+
+    void excludeCategory(String category) {
+        excludedCategories.add(category);
+    }
+
+    void restrictType(TransactionType restricted) {
+        if (type != null && type != restricted) {
+            typeConflict = true;
+        }
+        type = restricted;
+    }
+
+    void restrictAmountMin(double min, boolean inclusive) {
+        if (min > amountMin || (min == amountMin && !inclusive)) {
+            amountMin = min;
+            amountMinInclusive = inclusive;
+        }
+    }
+
+    void restrictAmountMax(double max, boolean inclusive) {
+        if (max < amountMax || (max == amountMax && !inclusive)) {
+            amountMax = max;
+            amountMaxInclusive = inclusive;
+        }
+    }
+
+    void restrictDateFrom(LocalDateTime from) {
+        if (dateFrom == null || from.isAfter(dateFrom)) {
+            dateFrom = from;
+        }
+    }
+
+    void restrictDateTo(LocalDateTime toExclusive) {
+        if (dateTo == null || toExclusive.isBefore(dateTo)) {
+            dateTo = toExclusive;
+        }
+    }
+
+    public boolean matches(Transaction transaction) {
+        if (typeConflict || (type != null && transaction.getType() != type)) {
+            return false;
+        }
+        String category = transaction.getCategory();
+        if ((categories != null && !categories.contains(category)) || excludedCategories.contains(category)) {
+            return false;
+        }
+        return matchesAmount(transaction.getAmount()) && matchesDate(transaction.getDate());
+    }
+
+    public boolean matchesAmount(double amount) {
+        boolean aboveMin = amountMinInclusive ? amount >= amountMin : amount > amountMin;
+        boolean belowMax = amountMaxInclusive ? amount <= amountMax : amount < amountMax;
+        return aboveMin && belowMax;
+    }
+
+    private boolean matchesDate(LocalDateTime date) {
+        return (dateFrom == null || !date.isBefore(dateFrom)) && (dateTo == null || date.isBefore(dateTo));
+    }
+
+    public boolean isEmpty() {
+        return typeConflict || (categories != null && categories.isEmpty());
+    }
+
+    public Optional<Set<String>> getCategories() {
+        return Optional.ofNullable(categories).map(Set::copyOf);
+    }
+
+    public Optional<TransactionType> getType() { return Optional.ofNullable(type); }
+    public double getAmountMin() { return amountMin; }
+    public boolean isAmountMinInclusive() { return amountMinInclusive; }
+    public double getAmountMax() { return amountMax; }
+    public boolean isAmountMaxInclusive() { return amountMaxInclusive; }
+    public boolean hasAmountRange() { return amountMin != Double.NEGATIVE_INFINITY || amountMax != Double.POSITIVE_INFINITY; }
+    public boolean hasDateRange() { return dateFrom != null || dateTo != null; }
+    public LocalDateTime getDateFrom() { return dateFrom; }
+    public LocalDateTime getDateTo() { return dateTo; }
+}
@@ -2,6 +2,7 @@ package com.finance.core.repository;
 
 import com.finance.core.model.User;
 import java.util.*;
+import java.util.stream.Stream;
 
 public interface UserRepository {
     User findByUsername(String username);
@@ -13,4 +14,8 @@ public interface UserRepository {
     List<User> findAll();
 
     boolean exists(String username);
-}
\ No newline at end of file
+
+    default Stream<User> streamAll() {
+        return findAll().stream();
+    }
+}
@@ -0,0 +1,138 @@
+package com.finance.core.service;
+
+import com.finance.core.model.User;
+import com.finance.core.repository.UserRepository;
+import com.finance.core.stats.QuantileSketch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.Stream;
+
+public class AnalyticsService {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+    private static final int[] PERCENTILES = {50, 90, 99};
+
+    private final UserRepository userRepository;
+    private final int maxInFlight;
+
+    public AnalyticsService(UserRepository userRepository) {
+        this(userRepository, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public AnalyticsService(UserRepository userRepository, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight tasks must be positive");
+        }
+        this.userRepository = Objects.requireNonNull(userRepository, "User repository cannot be null");
+        this.maxInFlight = maxInFlight;
+    }
+
+    public GlobalReport generateGlobalReport(int topSpendersLimit) {
+        if (topSpendersLimit < 0) {
+            throw new IllegalArgumentException("Количество пользователей в рейтинге не может быть отрицательным");
+        }
+
+        Accumulator accumulator = new Accumulator(topSpendersLimit);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // Ограничиваем число одновременно обрабатываемых кошельков, чтобы не держать в памяти все отчеты сразу
+        Semaphore permits = new Semaphore(maxInFlight);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        accumulator.merge(user.getUsername(), new FinancialReport(user.getWallet()));
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            });
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Ошибка при построении аналитики: " + failure.get().getMessage(),
+                    failure.get());
+        }
+        return accumulator.toReport();
+    }
+
+    private static final class Accumulator {
+        private final int topSpendersLimit;
+        private final Map<String, DoubleAdder> incomeByCategory = new ConcurrentHashMap<>();
+        private final Map<String, DoubleAdder> expensesByCategory = new ConcurrentHashMap<>();
+        private final Map<String, QuantileSketch> expenseDistributions = new ConcurrentHashMap<>();
+        private final DoubleAdder totalIncome = new DoubleAdder();
+        private final DoubleAdder totalExpenses = new DoubleAdder();
+        private final PriorityQueue<GlobalReport.UserSpending> topSpenders;
+        private double[] userExpenses = new double[64];
+        private int userCount;
+
+        Accumulator(int topSpendersLimit) {
+            this.topSpendersLimit = topSpendersLimit;
+            this.topSpenders = new PriorityQueue<>(Comparator.comparingDouble(GlobalReport.UserSpending::expenses));
+        }
+
+        void merge(String username, FinancialReport report) {
+            report.getIncomeByCategory().forEach((category, amount) ->
+                    incomeByCategory.computeIfAbsent(category, k -> new DoubleAdder()).add(amount));
+            report.getExpensesByCategory().forEach((category, amount) ->
+                    expensesByCategory.computeIfAbsent(category, k -> new DoubleAdder()).add(amount));
+            report.getExpenseDistributions().forEach((category, sketch) ->
+                    expenseDistributions.merge(category, sketch, (merged, next) -> {
+                        merged.merge(next);
+                        return merged;
+                    }));
+            totalIncome.add(report.getTotalIncome());
+            totalExpenses.add(report.getTotalExpenses());
+
+            synchronized (this) {
+                if (userCount == userExpenses.length) {
+                    userExpenses = Arrays.copyOf(userExpenses, userCount * 2);
+                }
+                userExpenses[userCount++] = report.getTotalExpenses();
+
+                if (topSpendersLimit > 0) {
+                    topSpenders.offer(new GlobalReport.UserSpending(username, report.getTotalExpenses()));
+                    if (topSpenders.size() > topSpendersLimit) {
+                        topSpenders.poll();
+                    }
+                }
+            }
+        }
+
+        synchronized GlobalReport toReport() {
+            double[] sorted = Arrays.copyOf(userExpenses, userCount);
+            Arrays.sort(sorted);
+
+            Map<Integer, Double> percentiles = new HashMap<>();
+            if (sorted.length > 0) {
+                for (int percentile : PERCENTILES) {
+                    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+                    percentiles.put(percentile, sorted[Math.max(rank, 1) - 1]);
+                }
+            }
+
+            List<GlobalReport.UserSpending> top = new ArrayList<>(topSpenders);
+            top.sort(Comparator.comparingDouble(GlobalReport.UserSpending::expenses).reversed()
+                    .thenComparing(GlobalReport.UserSpending::username));
+
+            return new GlobalReport(userCount, totalIncome.sum(), totalExpenses.sum(),
+                    sum(incomeByCategory), sum(expensesByCategory), percentiles, expenseDistributions, top);
+        }
+
+        private static Map<String, Double> sum(Map<String, DoubleAdder> totals) {
+            Map<String, Double> result = new HashMap<>();
+            totals.forEach((category, adder) -> result.put(category, adder.sum()));
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.finance.core.service;
 
+import com.finance.core.index.PrefixTrie;
 import com.finance.core.model.User;
 import com.finance.core.repository.UserRepository;
 
@@ -8,6 +9,7 @@ import java.util.List;
 public class AuthService {
     private final UserRepository userRepository;
     private User currentUser;
+    private PrefixTrie usernames;
 
     public AuthService(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -21,6 +23,9 @@ public class AuthService {
         try {
             User user = new User(username, password);
             userRepository.addUser(user);
+            if (usernames != null) {
+                usernames.add(username);
+            }
             return true;
         } catch (IllegalArgumentException e) {
             System.out.println(e.getMessage());
@@ -65,6 +70,24 @@ public class AuthService {
         return userRepository.findAll();
     }
 
+    public List<String> completeUsername(String prefix, int limit) {
+        return usernameTrie().complete(prefix, limit);
+    }
+
+    public List<String> suggestUsernames(String username, int limit) {
+        return usernameTrie().suggest(username, username.length() <= 4 ? 1 : 2, limit);
+    }
+
+    // Дерево строится при первом обращении и дальше поддерживается при регистрации
+    private PrefixTrie usernameTrie() {
+        if (usernames == null) {
+            PrefixTrie trie = new PrefixTrie();
+            userRepository.findAll().forEach(user -> trie.add(user.getUsername()));
+            usernames = trie;
+        }
+        return usernames;
+    }
+
     public boolean userExists(String username) {
         return userRepository.exists(username);
     }
@@ -1,46 +1,130 @@
 package com.finance.core.service;
 
 import com.finance.core.model.*;
+import com.finance.core.query.QueryParser;
+import com.finance.core.query.QueryPlan;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public class FinanceService {
     private final BudgetService budgetService;
+    private final QueryParser queryParser;
     private Wallet userWallet;
+    private List<Transaction> pendingTransactions;
 
     public FinanceService() {
         this.budgetService = new BudgetService();
+        this.queryParser = new QueryParser();
         this.userWallet = null;
     }
 
     public void setUserWallet(Wallet wallet) {
         userWallet = wallet;
+        pendingTransactions = null;
     }
 
     public void addIncome(String category, double amount, String description) {
-        Transaction transaction = new Transaction(category, amount, TransactionType.INCOME, description);
-        userWallet.addTransaction(transaction);
+        post(new Transaction(category, amount, TransactionType.INCOME, description));
     }
 
     public void addExpense(String category, double amount, String description) {
-        Transaction transaction = new Transaction(category, amount, TransactionType.EXPENSE, description);
-        userWallet.addTransaction(transaction);
+        post(new Transaction(category, amount, TransactionType.EXPENSE, description));
+    }
+
+    // Пакетное проведение: предупреждения по бюджетам вычисляются один раз после применения всего пакета
+    public List<String> addTransactions(Collection<Transaction> batch) {
+        if (pendingTransactions != null) {
+            pendingTransactions.addAll(batch);
+            return List.of();
+        }
+        userWallet.addTransactions(batch);
+        return checkAlerts();
+    }
+
+    public ImportDeduplicator newImportDeduplicator() {
+        return new ImportDeduplicator(userWallet, pendingTransactions != null ? pendingTransactions : List.of());
+    }
+
+    private void post(Transaction transaction) {
+        if (pendingTransactions != null) {
+            pendingTransactions.add(transaction);
+        } else {
+            userWallet.addTransaction(transaction);
+        }
+    }
+
+    public void beginTransaction() {
+        if (pendingTransactions != null) {
+            throw new IllegalStateException("Транзакция уже начата");
+        }
+        pendingTransactions = new ArrayList<>();
+    }
+
+    public int commitTransaction() {
+        if (pendingTransactions == null) {
+            throw new IllegalStateException("Нет активной транзакции");
+        }
+        List<Transaction> staged = pendingTransactions;
+        userWallet.addTransactions(staged);
+        pendingTransactions = null;
+        return staged.size();
+    }
+
+    public int rollbackTransaction() {
+        if (pendingTransactions == null) {
+            throw new IllegalStateException("Нет активной транзакции");
+        }
+        int discarded = pendingTransactions.size();
+        pendingTransactions = null;
+        return discarded;
+    }
+
+    public boolean isInTransaction() {
+        return pendingTransactions != null;
+    }
+
+    public int getPendingCount() {
+        return pendingTransactions != null ? pendingTransactions.size() : 0;
     }
 
     public void setBudget(String category, double limit) {
+        checkNoTransaction();
         userWallet.setBudget(category, limit);
     }
 
+    public void setBudget(String category, double limit, double warningThreshold) {
+        checkNoTransaction();
+        userWallet.setBudget(category, limit, warningThreshold);
+    }
+
     public void updateBudget(String category, double newLimit) {
+        checkNoTransaction();
         userWallet.updateBudget(category, newLimit);
     }
 
     public void removeBudget(String category) {
+        checkNoTransaction();
         userWallet.removeBudget(category);
     }
 
+    // Транзакция откладывает только проводки; бюджеты применялись бы сразу и не отменялись бы rollback
+    private void checkNoTransaction() {
+        if (pendingTransactions != null) {
+            throw new IllegalStateException("Изменение бюджетов недоступно внутри транзакции");
+        }
+    }
+
     public void transfer(Wallet target, double amount, String description) {
+        if (pendingTransactions != null) {
+            throw new IllegalStateException("Перевод недоступен внутри транзакции");
+        }
         if (userWallet.equals(target)) {
             throw new IllegalArgumentException("Перевод с кошелька на тот же кошелек");
         }
@@ -48,11 +132,13 @@ public class FinanceService {
             throw new IllegalStateException("Недостаточно средств для перевода");
         }
 
-        addExpense("Перевод", amount, "Перевод пользователю " + target.getUsername() + ": " + description);
+        Transaction expense = new Transaction("Перевод", amount, TransactionType.EXPENSE,
+                "Перевод пользователю " + target.getUsername() + ": " + description);
+        userWallet.addTransfer(target.getUsername(), expense);
 
         Transaction income = new Transaction("Перевод", amount, TransactionType.INCOME,
                 "Перевод от " + userWallet.getUsername() + ": " + description);
-        target.addTransaction(income);
+        target.addTransfer(userWallet.getUsername(), income);
     }
 
     public FinancialReport generateReport() {
@@ -63,10 +149,51 @@ public class FinanceService {
         return userWallet.calculateExpensesForCategories(categories);
     }
 
+    public double calculateExpensesForCategories(Set<String> categories, YearMonth month) {
+        return userWallet.calculateExpensesForCategories(categories, month);
+    }
+
+    public List<Transaction> search(String query) {
+        return userWallet.search(query);
+    }
+
+    public List<String> completeCategory(String prefix, int limit) {
+        return userWallet.completeCategory(prefix, limit);
+    }
+
+    public List<String> suggestCategories(String category, int limit) {
+        return userWallet.suggestCategories(category, limit);
+    }
+
+    public List<Transaction> getLargestExpenses(int limit, String category) {
+        return userWallet.getLargestExpenses(limit, category);
+    }
+
+    public List<Transaction> getExpensesAbove(double threshold) {
+        return userWallet.getExpensesAbove(threshold);
+    }
+
+    public Stream<Transaction> query(String expression) {
+        return userWallet.query(queryParser.parse(expression));
+    }
+
+    public QueryPlan explainQuery(String expression) {
+        return userWallet.plan(queryParser.parse(expression));
+    }
+
     public List<String> checkAlerts() {
         return userWallet.checkBudgetAlerts();
     }
 
+    public Optional<String> checkExpenseAnomaly(String category, double amount) {
+        return userWallet.checkExpenseAnomaly(category, amount);
+    }
+
+    // Баланс по транзакциям с датой не позже asOf
+    public double getBalanceAsOf(LocalDateTime asOf) {
+        return userWallet.getBalanceAsOf(asOf);
+    }
+
     public Wallet getCurrentWallet() {
         return userWallet;
     }
@@ -1,14 +1,22 @@
 package com.finance.core.service;
 
+import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.core.stats.HeavyHitters;
+import com.finance.core.stats.QuantileSketch;
 
 public class FinancialReport {
+    private static final int TOP_MERCHANTS = 5;
+
     private final double totalIncome;
     private final double totalExpenses;
     private final double balance;
     private final java.util.Map<String, Double> incomeByCategory;
     private final java.util.Map<String, Double> expensesByCategory;
     private final java.util.Map<String, com.finance.core.model.Budget> budgets;
+    private final java.util.Map<String, QuantileSketch> expenseDistributions;
+    private final java.util.List<HeavyHitters.Hitter> topMerchantsBySpend;
+    private final java.util.List<HeavyHitters.Hitter> topMerchantsByFrequency;
 
     public FinancialReport(Wallet wallet) {
         this.totalIncome = wallet.getTotalIncome();
@@ -17,6 +25,9 @@ public class FinancialReport {
         this.incomeByCategory = wallet.getIncomeByCategory();
         this.expensesByCategory = wallet.getExpensesByCategory();
         this.budgets = wallet.getBudgets();
+        this.expenseDistributions = wallet.getAmountDistributions(TransactionType.EXPENSE);
+        this.topMerchantsBySpend = wallet.getTopMerchantsBySpend(TOP_MERCHANTS);
+        this.topMerchantsByFrequency = wallet.getTopMerchantsByFrequency(TOP_MERCHANTS);
     }
 
     public double getTotalIncome() { return totalIncome; }
@@ -25,4 +36,7 @@ public class FinancialReport {
     public java.util.Map<String, Double> getIncomeByCategory() { return incomeByCategory; }
     public java.util.Map<String, Double> getExpensesByCategory() { return expensesByCategory; }
     public java.util.Map<String, com.finance.core.model.Budget> getBudgets() { return budgets; }
+    public java.util.Map<String, QuantileSketch> getExpenseDistributions() { return expenseDistributions; }
+    public java.util.List<HeavyHitters.Hitter> getTopMerchantsBySpend() { return topMerchantsBySpend; }
+    public java.util.List<HeavyHitters.Hitter> getTopMerchantsByFrequency() { return topMerchantsByFrequency; }
 }
@@ -0,0 +1,43 @@
+package com.finance.core.service;
+
+import com.finance.core.stats.QuantileSketch;
+
+import java.util.List;
+import java.util.Map;
+
+public class GlobalReport {
+    private final int userCount;
+    private final double totalIncome;
+    private final double totalExpenses;
+    private final Map<String, Double> incomeByCategory;
+    private final Map<String, Double> expensesByCategory;
+    private final Map<Integer, Double> expensePercentiles;
+    private final Map<String, QuantileSketch> expenseDistributions;
+    private final List<UserSpending> topSpenders;
+
+    public GlobalReport(int userCount, double totalIncome, double totalExpenses,
+                        Map<String, Double> incomeByCategory, Map<String, Double> expensesByCategory,
+                        Map<Integer, Double> expensePercentiles, Map<String, QuantileSketch> expenseDistributions,
+                        List<UserSpending> topSpenders) {
+        this.userCount = userCount;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.incomeByCategory = Map.copyOf(incomeByCategory);
+        this.expensesByCategory = Map.copyOf(expensesByCategory);
+        this.expensePercentiles = Map.copyOf(expensePercentiles);
+        this.expenseDistributions = Map.copyOf(expenseDistributions);
+        this.topSpenders = List.copyOf(topSpenders);
+    }
+
+    public int getUserCount() { return userCount; }
+    public double getTotalIncome() { return totalIncome; }
+    public double getTotalExpenses() { return totalExpenses; }
+    public Map<String, Double> getIncomeByCategory() { return incomeByCategory; }
+    public Map<String, Double> getExpensesByCategory() { return expensesByCategory; }
+    public Map<Integer, Double> getExpensePercentiles() { return expensePercentiles; }
+    public Map<String, QuantileSketch> getExpenseDistributions() { return expenseDistributions; }
+    public List<UserSpending> getTopSpenders() { return topSpenders; }
+
+    public record UserSpending(String username, double expenses) {
+    }
+}
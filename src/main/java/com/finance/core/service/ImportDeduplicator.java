@@ -0,0 +1,82 @@
+package com.finance.core.service;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFingerprint;
+import com.finance.core.model.Wallet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Отбрасывает строки импорта, уже присутствующие в кошельке на момент начала импорта,
+// а внутри открытой транзакции - и строки, уже отложенные в нее.
+// Фильтр Блума кошелька отсекает новые строки без обращения к истории. При первом положительном ответе
+// фильтра история до импорта один раз сводится в точные счетчики отпечатков, и все следующие пакеты
+// проверяются по ним без повторного прохода.
+// Одинаковые строки учитываются по количеству: две одинаковые покупки в файле против одной в кошельке
+// дадут один дубликат и одну новую транзакцию
+public class ImportDeduplicator {
+    private final Wallet wallet;
+    private final int baseline;
+    // Сколько совпадений для отпечатка еще осталось в истории и открытой транзакции; null - история не сведена
+    private Map<TransactionFingerprint, Integer> remaining;
+    // Отпечатки строк открытой транзакции: в кошельке и его фильтре их еще нет
+    private final Map<TransactionFingerprint, Integer> staged;
+    private long duplicates;
+
+    public ImportDeduplicator(Wallet wallet) {
+        this(wallet, List.of());
+    }
+
+    public ImportDeduplicator(Wallet wallet, Collection<Transaction> staged) {
+        this.wallet = Objects.requireNonNull(wallet, "Wallet cannot be null");
+        this.baseline = wallet.getTransactionCount();
+        this.staged = new HashMap<>();
+        for (Transaction transaction : staged) {
+            this.staged.merge(TransactionFingerprint.of(transaction), 1, Integer::sum);
+        }
+    }
+
+    public List<Transaction> filter(Collection<Transaction> batch) {
+        List<Transaction> fresh = new ArrayList<>(batch.size());
+        for (Transaction transaction : batch) {
+            TransactionFingerprint candidate = candidate(transaction);
+            if (candidate != null && consume(candidate)) {
+                duplicates++;
+            } else {
+                fresh.add(transaction);
+            }
+        }
+        return fresh;
+    }
+
+    // Отпечаток строки, если фильтр допускает ее наличие в кошельке, иначе null
+    private TransactionFingerprint candidate(Transaction transaction) {
+        if (baseline == 0 && staged.isEmpty()) {
+            return null;
+        }
+        TransactionFingerprint fingerprint = TransactionFingerprint.of(transaction);
+        if (staged.containsKey(fingerprint) || baseline > 0 && wallet.mightContainFingerprint(fingerprint)) {
+            return fingerprint;
+        }
+        return null;
+    }
+
+    private boolean consume(TransactionFingerprint fingerprint) {
+        if (remaining == null) {
+            remaining = wallet.countFingerprints(baseline);
+            staged.forEach((key, count) -> remaining.merge(key, count, Integer::sum));
+        }
+        Integer left = remaining.get(fingerprint);
+        if (left == null || left == 0) {
+            return false;
+        }
+        remaining.put(fingerprint, left - 1);
+        return true;
+    }
+
+    public long getDuplicates() { return duplicates; }
+}
@@ -0,0 +1,47 @@
+package com.finance.core.stats;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+public class CountMinSketch implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int width;
+    private final int depth;
+    private final double[] table;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Sketch width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.table = new double[width * depth];
+    }
+
+    public void add(String key, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        int hash = key.hashCode();
+        for (int row = 0; row < depth; row++) {
+            table[row * width + bucket(hash, row)] += weight;
+        }
+    }
+
+    public double estimate(String key) {
+        int hash = key.hashCode();
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row * width + bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    private int bucket(int hash, int row) {
+        long mixed = (hash + (row + 1) * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        mixed ^= mixed >>> 31;
+        return (int) Math.floorMod(mixed, (long) width);
+    }
+}
@@ -0,0 +1,87 @@
+package com.finance.core.stats;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+public class HeavyHitters implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int SKETCH_WIDTH = 1024;
+    private static final int SKETCH_DEPTH = 4;
+
+    private final SpaceSaving byFrequency;
+    private final SpaceSaving bySpend;
+    private final CountMinSketch frequencySketch;
+    private final CountMinSketch spendSketch;
+
+    public HeavyHitters() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HeavyHitters(int capacity) {
+        this.byFrequency = new SpaceSaving(capacity);
+        this.bySpend = new SpaceSaving(capacity);
+        this.frequencySketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+        this.spendSketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+    }
+
+    public void add(String description, double amount) {
+        String key = normalize(description);
+        if (key.isEmpty()) {
+            return;
+        }
+        byFrequency.add(key, 1);
+        bySpend.add(key, amount);
+        frequencySketch.add(key, 1);
+        spendSketch.add(key, amount);
+    }
+
+    public List<Hitter> topByFrequency(int n) {
+        return byFrequency.top(n).stream()
+                .map(entry -> new Hitter(entry.key(),
+                        Math.min(entry.value(), frequencySketch.estimate(entry.key()))))
+                .toList();
+    }
+
+    public List<Hitter> topBySpend(int n) {
+        return bySpend.top(n).stream()
+                .map(entry -> new Hitter(entry.key(),
+                        Math.min(entry.value(), spendSketch.estimate(entry.key()))))
+                .toList();
+    }
+
+    public double estimateFrequency(String description) {
+        return frequencySketch.estimate(normalize(description));
+    }
+
+    public double estimateSpend(String description) {
+        return spendSketch.estimate(normalize(description));
+    }
+
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !normalized.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public record Hitter(String description, double estimate) {
+    }
+}
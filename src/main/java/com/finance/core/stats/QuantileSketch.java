@@ -0,0 +1,213 @@
+package com.finance.core.stats;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Упрощенный KLL-скетч: уровни-компакторы, элемент уровня h имеет вес 2^h
+public class QuantileSketch implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_K = 200;
+    private static final int MIN_K = 8;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private long count;
+    private double min;
+    private double max;
+    private long randomState;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("Sketch parameter k must be at least " + MIN_K);
+        }
+        this.k = k;
+        this.levels = new double[4][];
+        this.sizes = new int[4];
+        this.levels[0] = new double[MIN_LEVEL_CAPACITY];
+        this.levelCount = 1;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+        this.randomState = 0x9E3779B97F4A7C15L;
+    }
+
+    public QuantileSketch(QuantileSketch other) {
+        this.k = other.k;
+        this.levels = new double[other.levels.length][];
+        for (int i = 0; i < other.levelCount; i++) {
+            this.levels[i] = other.levels[i].clone();
+        }
+        this.sizes = other.sizes.clone();
+        this.levelCount = other.levelCount;
+        this.count = other.count;
+        this.min = other.min;
+        this.max = other.max;
+        this.randomState = other.randomState;
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Value cannot be NaN");
+        }
+        append(0, value);
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other == null || other.count == 0) {
+            return;
+        }
+        if (other == this) {
+            // Уровни дописываются в те же массивы, которые читаются: нужна копия
+            other = new QuantileSketch(this);
+        }
+        for (int level = 0; level < other.levelCount; level++) {
+            ensureLevel(level);
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compress();
+    }
+
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+
+        double[][] sorted = new double[levelCount][];
+        long totalWeight = 0;
+        for (int level = 0; level < levelCount; level++) {
+            sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted[level]);
+            totalWeight += (long) sizes[level] << level;
+        }
+
+        // Слияние отсортированных уровней с накоплением веса до нужного ранга
+        double target = q * totalWeight;
+        int[] positions = new int[levelCount];
+        long cumulative = 0;
+        while (true) {
+            int best = -1;
+            for (int level = 0; level < levelCount; level++) {
+                if (positions[level] < sorted[level].length
+                        && (best < 0 || sorted[level][positions[level]] < sorted[best][positions[best]])) {
+                    best = level;
+                }
+            }
+            if (best < 0) {
+                return max;
+            }
+            double value = sorted[best][positions[best]++];
+            cumulative += 1L << best;
+            if (cumulative >= target) {
+                return value;
+            }
+        }
+    }
+
+    public double getMedian() { return quantile(0.5); }
+    public long getCount() { return count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+
+    public int getRetainedItems() {
+        int retained = 0;
+        for (int level = 0; level < levelCount; level++) {
+            retained += sizes[level];
+        }
+        return retained;
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        boolean compacted = true;
+        while (compacted) {
+            compacted = false;
+            for (int level = 0; level < levelCount; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    compacted = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        ensureLevel(level + 1);
+
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        // При нечетном размере один элемент остается на текущем уровне
+        int compactable = size - (size & 1);
+        int offset = nextBit();
+        for (int i = offset; i < compactable; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if ((size & 1) == 1) {
+            items[0] = items[size - 1];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+    }
+
+    private void ensureLevel(int level) {
+        if (level >= levels.length) {
+            levels = Arrays.copyOf(levels, Math.max(level + 1, levels.length * 2));
+            sizes = Arrays.copyOf(sizes, levels.length);
+        }
+        while (levelCount <= level) {
+            levels[levelCount++] = new double[MIN_LEVEL_CAPACITY];
+        }
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private int nextBit() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+}
@@ -0,0 +1,95 @@
+package com.finance.core.stats;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+// Онлайн-статистика по методу Уэлфорда, сумма накапливается с компенсацией Кэхэна
+public class RunningStats implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+    private double sum;
+    private double sumCompensation;
+
+    public RunningStats() {
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+    }
+
+    public RunningStats(RunningStats other) {
+        this.count = other.count;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.min = other.min;
+        this.max = other.max;
+        this.sum = other.sum;
+        this.sumCompensation = other.sumCompensation;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+        addToSum(value);
+    }
+
+    private void addToSum(double value) {
+        double y = value - sumCompensation;
+        double t = sum + y;
+        sumCompensation = (t - sum) - y;
+        sum = t;
+    }
+
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            copyFrom(other);
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        // Точная сумма другой стороны - other.sum - other.sumCompensation: ее поправка переносится сюда
+        addToSum(other.sum);
+        sumCompensation += other.sumCompensation;
+        count = total;
+    }
+
+    public boolean isOutlier(double value, double sigmas, long minSamples) {
+        if (count < minSamples || value <= mean) {
+            return false;
+        }
+        return value - mean > sigmas * getStandardDeviation();
+    }
+
+    public long getCount() { return count; }
+    public double getMean() { return count > 0 ? mean : Double.NaN; }
+    public double getVariance() { return count > 1 ? m2 / (count - 1) : 0.0; }
+    public double getStandardDeviation() { return Math.sqrt(getVariance()); }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getSum() { return sum; }
+
+    private void copyFrom(RunningStats other) {
+        this.count = other.count;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.min = other.min;
+        this.max = other.max;
+        this.sum = other.sum;
+        this.sumCompensation = other.sumCompensation;
+    }
+}
@@ -0,0 +1,122 @@
+package com.finance.core.stats;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+
+// Алгоритм Space-Saving: k счетчиков, вытесняется минимальный (индексированная min-куча)
+public class SpaceSaving implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+    private final Counter[] heap;
+    private final Map<String, Counter> counters;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>();
+    }
+
+    public void add(String key, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.value += weight;
+            siftDown(counter.position);
+            return;
+        }
+
+        if (size < capacity) {
+            counter = new Counter(key, weight, 0);
+            counter.position = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.position);
+            return;
+        }
+
+        // Новый ключ наследует значение вытесненного минимума как верхнюю оценку ошибки
+        Counter evicted = heap[0];
+        counters.remove(evicted.key);
+        counter = new Counter(key, evicted.value + weight, evicted.value);
+        counter.position = 0;
+        heap[0] = counter;
+        counters.put(key, counter);
+        siftDown(0);
+    }
+
+    public List<Entry> top(int n) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(heap[i].key, heap[i].value, heap[i].error));
+        }
+        entries.sort(Comparator.comparingDouble(Entry::value).reversed().thenComparing(Entry::key));
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].value <= heap[index].value) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left].value < heap[smallest].value) {
+                smallest = left;
+            }
+            if (right < size && heap[right].value < heap[smallest].value) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Counter tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        heap[i].position = i;
+        heap[j].position = j;
+    }
+
+    public record Entry(String key, double value, double error) {
+    }
+
+    private static final class Counter implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+        private final double error;
+        private double value;
+        private int position;
+
+        Counter(String key, double value, double error) {
+            this.key = key;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
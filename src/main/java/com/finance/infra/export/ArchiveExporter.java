@@ -0,0 +1,211 @@
+package com.finance.infra.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.repository.UserRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Выгрузка всех пользователей за один проход: каждый кошелек - отдельный раздел в формате export-json,
+// в конце пишется manifest.json с числом строк и SHA-256 каждого раздела.
+// Кошельки форматируются одновременно на виртуальных потоках, не больше maxInFlight сразу, и каждый раздел
+// пишется сразу в свой файл, без буферизации в памяти. Для ZIP файлы разделов пишутся во временный каталог
+// рядом с архивом и переносятся в архив по порядку пользователей одним потоком
+public class ArchiveExporter {
+    static final String MANIFEST = "manifest.json";
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final UserRepository userRepository;
+    private final int maxInFlight;
+    private final JsonExporter jsonExporter;
+    private final JsonFactory jsonFactory;
+
+    public ArchiveExporter(UserRepository userRepository) {
+        this(userRepository, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public ArchiveExporter(UserRepository userRepository, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight partitions must be positive");
+        }
+        this.userRepository = Objects.requireNonNull(userRepository, "User repository cannot be null");
+        this.maxInFlight = maxInFlight;
+        this.jsonExporter = new JsonExporter();
+        this.jsonFactory = JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+    }
+
+    // Путь с расширением .zip - архив (сначала пишется во временный файл и переименовывается), иначе каталог
+    public List<ArchivePartition> exportAll(Path target) throws IOException {
+        boolean zip = target.getFileName().toString().endsWith(".zip");
+        if (!zip) {
+            Files.createDirectories(target.resolve("users"));
+            List<ArchivePartition> partitions = export(target, null);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.resolve(MANIFEST)))) {
+                writeManifest(partitions, out);
+            }
+            return partitions;
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Path spool = Files.createTempDirectory(target.toAbsolutePath().getParent(), target.getFileName() + ".");
+        List<ArchivePartition> partitions;
+        try (ZipOutputStream out = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+            out.setLevel(Deflater.BEST_SPEED);
+            Files.createDirectories(spool.resolve("users"));
+            partitions = export(spool, out);
+            out.putNextEntry(new ZipEntry(MANIFEST));
+            writeManifest(partitions, out);
+            out.closeEntry();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            deleteRecursively(spool);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return partitions;
+    }
+
+    // zip == null - разделы остаются файлами в directory, иначе переносятся из него в архив
+    private List<ArchivePartition> export(Path directory, ZipOutputStream zip) throws IOException {
+        List<ArchivePartition> partitions = new ArrayList<>();
+        Deque<Future<ArchivePartition>> inFlight = new ArrayDeque<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             Stream<User> users = userRepository.streamAll()) {
+            try {
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    User user = iterator.next();
+                    inFlight.add(executor.submit(() -> format(user, directory)));
+                    if (inFlight.size() >= maxInFlight) {
+                        partitions.add(store(await(inFlight.poll()), directory, zip));
+                    }
+                }
+                while (!inFlight.isEmpty()) {
+                    partitions.add(store(await(inFlight.poll()), directory, zip));
+                }
+            } finally {
+                inFlight.forEach(future -> future.cancel(true));
+            }
+        }
+        return partitions;
+    }
+
+    private ArchivePartition format(User user, Path directory) throws IOException {
+        String file = "users/" + URLEncoder.encode(user.getUsername(), StandardCharsets.UTF_8) + ".json";
+        Path path = directory.resolve(file);
+        Wallet wallet = user.getWallet();
+        MessageDigest digest = sha256();
+
+        try (DigestOutputStream out = new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE), digest)) {
+            jsonExporter.exportWallet(wallet, out);
+        }
+
+        return new ArchivePartition(user.getUsername(), file, wallet.getTransactionCount(),
+                wallet.getBudgets().size(), Files.size(path), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static ArchivePartition store(ArchivePartition partition, Path directory, ZipOutputStream zip)
+            throws IOException {
+        if (zip != null) {
+            Path file = directory.resolve(partition.file());
+            zip.putNextEntry(new ZipEntry(partition.file()));
+            Files.copy(file, zip);
+            zip.closeEntry();
+            Files.delete(file);
+        }
+        return partition;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void writeManifest(List<ArchivePartition> partitions, OutputStream out) throws IOException {
+        long transactions = partitions.stream().mapToLong(ArchivePartition::transactions).sum();
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeStringField("createdAt", LocalDateTime.now().toString());
+            generator.writeStringField("format", "export-json");
+            generator.writeNumberField("users", partitions.size());
+            generator.writeNumberField("transactions", transactions);
+            generator.writeArrayFieldStart("partitions");
+            for (ArchivePartition partition : partitions) {
+                generator.writeStartObject();
+                generator.writeStringField("username", partition.username());
+                generator.writeStringField("file", partition.file());
+                generator.writeNumberField("transactions", partition.transactions());
+                generator.writeNumberField("budgets", partition.budgets());
+                generator.writeNumberField("bytes", partition.bytes());
+                generator.writeStringField("sha256", partition.sha256());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static ArchivePartition await(Future<ArchivePartition> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Экспорт прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.finance.infra.export;
+
+// Раздел архива одного пользователя: имя файла внутри архива, число строк, размер и SHA-256 содержимого
+public record ArchivePartition(String username, String file, int transactions, int budgets, long bytes,
+                               String sha256) {
+}
@@ -0,0 +1,39 @@
+package com.finance.infra.export;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+// Канал в памяти: собирает байты отформатированного блока для последующей записи в файл
+class ChunkBuffer implements WritableByteChannel {
+    private byte[] data;
+    private int size;
+
+    ChunkBuffer(int initialCapacity) {
+        this.data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+        int length = source.remaining();
+        if (size + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+        }
+        source.get(data, size, length);
+        size += length;
+        return length;
+    }
+
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(data, 0, size);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
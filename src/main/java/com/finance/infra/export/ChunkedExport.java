@@ -0,0 +1,108 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.WalletView;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Транзакции делятся на блоки, блоки форматируются параллельно в память и пишутся в файл
+// по порядку gathering-записью. Каждый блок форматируется тем же кодом, что и при последовательном
+// экспорте, поэтому результат совпадает байт в байт. В памяти не больше 2 * parallelism блоков
+final class ChunkedExport {
+    private static final int BYTES_PER_ROW_ESTIMATE = 96;
+
+    interface ChunkFormatter {
+        void format(List<Transaction> chunk, WritableByteChannel out) throws IOException;
+    }
+
+    private ChunkedExport() {
+    }
+
+    static void write(GatheringByteChannel channel, WalletView wallet, int chunkSize, int parallelism, ChunkFormatter formatter)
+            throws IOException {
+        write(channel, wallet, 0, wallet.getTransactionCount(), chunkSize, parallelism, formatter);
+    }
+
+    // Транзакции с порядковыми номерами [first, count)
+    static void write(GatheringByteChannel channel, WalletView wallet, int first, int count, int chunkSize, int parallelism,
+                      ChunkFormatter formatter) throws IOException {
+        if (parallelism == 1 || count - first <= chunkSize) {
+            for (int from = first; from < count; from += Math.min(chunkSize, count - from)) {
+                List<Transaction> chunk = wallet.getTransactions(from, from + Math.min(chunkSize, count - from));
+                writeFully(channel, new ByteBuffer[]{format(formatter, chunk)});
+            }
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            Deque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+            for (int from = first; from < count; from += Math.min(chunkSize, count - from)) {
+                List<Transaction> chunk = wallet.getTransactions(from, from + Math.min(chunkSize, count - from));
+                inFlight.add(executor.submit(() -> format(formatter, chunk)));
+                if (inFlight.size() >= 2 * parallelism) {
+                    writeReady(channel, inFlight, parallelism);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeReady(channel, inFlight, inFlight.size());
+            }
+        }
+    }
+
+    private static ByteBuffer format(ChunkFormatter formatter, List<Transaction> chunk) {
+        ChunkBuffer buffer = new ChunkBuffer(chunk.size() * BYTES_PER_ROW_ESTIMATE);
+        try {
+            formatter.format(chunk, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteBuffer();
+    }
+
+    // Дожидается первого блока и забирает вместе с ним уже готовые следующие, чтобы записать их одним вызовом
+    private static void writeReady(GatheringByteChannel channel, Deque<Future<ByteBuffer>> inFlight, int limit)
+            throws IOException {
+        List<ByteBuffer> ready = new ArrayList<>();
+        ready.add(await(inFlight.poll()));
+        while (ready.size() < limit && !inFlight.isEmpty() && inFlight.peek().isDone()) {
+            ready.add(await(inFlight.poll()));
+        }
+        writeFully(channel, ready.toArray(ByteBuffer[]::new));
+    }
+
+    private static void writeFully(GatheringByteChannel channel, ByteBuffer[] buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private static ByteBuffer await(Future<ByteBuffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Экспорт прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+// Прочитанный блок колоночного файла: строки хранятся массивами по колонкам, категории - номерами в словаре блока
+public final class ColumnChunk {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final int size;
+    private final long[] timestamps;
+    private final double[] amounts;
+    private final int[] categoryIds;
+    private final byte[] types;
+    private final String[] dictionary;
+
+    ColumnChunk(int size, long[] timestamps, double[] amounts, int[] categoryIds, byte[] types, String[] dictionary) {
+        this.size = size;
+        this.timestamps = timestamps;
+        this.amounts = amounts;
+        this.categoryIds = categoryIds;
+        this.types = types;
+        this.dictionary = dictionary;
+    }
+
+    // Оставляет только строки с временем в [fromMicros, toMicros), сдвигая колонки на месте
+    ColumnChunk filter(long fromMicros, long toMicros) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] >= fromMicros && timestamps[i] < toMicros) {
+                timestamps[kept] = timestamps[i];
+                amounts[kept] = amounts[i];
+                categoryIds[kept] = categoryIds[i];
+                types[kept] = types[i];
+                kept++;
+            }
+        }
+        return new ColumnChunk(kept, timestamps, amounts, categoryIds, types, dictionary);
+    }
+
+    public int size() { return size; }
+    public long getTimestampMicros(int row) { return timestamps[checkRow(row)]; }
+    public LocalDateTime getDate(int row) { return ColumnarExporter.fromMicros(timestamps[checkRow(row)]); }
+    public double getAmount(int row) { return amounts[checkRow(row)]; }
+    public String getCategory(int row) { return dictionary[categoryIds[checkRow(row)]]; }
+    public TransactionType getType(int row) { return TYPES[types[checkRow(row)]]; }
+
+    public double sumAmounts(TransactionType type) {
+        double sum = 0;
+        byte ordinal = (byte) type.ordinal();
+        for (int i = 0; i < size; i++) {
+            if (types[i] == ordinal) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,163 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.WalletView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+// Колоночный двоичный формат для аналитики. После заголовка файла идут независимые блоки по chunkSize строк.
+// У блока заголовок со статистикой (число строк, min/max времени и суммы, длины данных) и колонки:
+// время в микросекундах UTC, сумма, номер категории, тип, затем словарь категорий блока.
+// Блоки кодируются параллельно, словарь у каждого свой. Сжатие deflate применяется к данным блока,
+// заголовок блока не сжимается, поэтому ColumnarReader пропускает блоки по диапазону дат без распаковки
+public class ColumnarExporter implements ReportExporter {
+    static final int MAGIC = 0x4C4F4346; // "FCOL"
+    static final byte VERSION = 1;
+    static final int FILE_HEADER_SIZE = 6;
+    static final int CHUNK_HEADER_SIZE = 44;
+    static final byte CODEC_NONE = 0;
+    static final byte CODEC_DEFLATE = 1;
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    // Блок вместе со словарем должен поместиться в один массив
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final Compression compression;
+
+    public ColumnarExporter() {
+        this(Compression.NONE);
+    }
+
+    public ColumnarExporter(Compression compression) {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, compression);
+    }
+
+    public ColumnarExporter(int parallelism, int chunkSize, Compression compression) {
+        if (parallelism < 1 || chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Parallelism must be positive and chunk size within 1.." + MAX_CHUNK_SIZE);
+        }
+        if (compression == Compression.GZIP) {
+            throw new IllegalArgumentException("Колоночный формат поддерживает только сжатие deflate");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.compression = Objects.requireNonNull(compression, "Compression cannot be null");
+    }
+
+    @Override
+    public void export(WalletView wallet, String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).put(VERSION).put(compression == Compression.DEFLATE ? CODEC_DEFLATE : CODEC_NONE).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ChunkedExport.write(channel, wallet, chunkSize, parallelism, this::writeChunk);
+        }
+    }
+
+    static long toMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private void writeChunk(List<Transaction> chunk, WritableByteChannel out) throws IOException {
+        int rows = chunk.size();
+        long[] micros = new long[rows];
+        double[] amounts = new double[rows];
+        int[] categoryIds = new int[rows];
+        byte[] types = new byte[rows];
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> names = new ArrayList<>();
+        int namesLength = 0;
+
+        long minMicros = Long.MAX_VALUE;
+        long maxMicros = Long.MIN_VALUE;
+        double minAmount = Double.POSITIVE_INFINITY;
+        double maxAmount = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = chunk.get(i);
+            micros[i] = toMicros(transaction.getDate());
+            amounts[i] = transaction.getAmount();
+            types[i] = (byte) transaction.getType().ordinal();
+            Integer id = dictionary.get(transaction.getCategory());
+            if (id == null) {
+                id = names.size();
+                dictionary.put(transaction.getCategory(), id);
+                byte[] name = transaction.getCategory().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                namesLength += name.length;
+            }
+            categoryIds[i] = id;
+            minMicros = Math.min(minMicros, micros[i]);
+            maxMicros = Math.max(maxMicros, micros[i]);
+            minAmount = Math.min(minAmount, amounts[i]);
+            maxAmount = Math.max(maxAmount, amounts[i]);
+        }
+
+        int rawLength = rows * (Long.BYTES + Double.BYTES + Integer.BYTES + 1)
+                + Integer.BYTES + names.size() * Integer.BYTES + namesLength;
+        ByteBuffer raw = ByteBuffer.allocate(rawLength).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asLongBuffer().put(micros);
+        raw.position(raw.position() + rows * Long.BYTES);
+        raw.asDoubleBuffer().put(amounts);
+        raw.position(raw.position() + rows * Double.BYTES);
+        raw.asIntBuffer().put(categoryIds);
+        raw.position(raw.position() + rows * Integer.BYTES);
+        raw.put(types);
+        raw.putInt(names.size());
+        for (byte[] name : names) {
+            raw.putInt(name.length).put(name);
+        }
+
+        ByteBuffer payload = compression == Compression.DEFLATE ? deflate(raw.array()) : raw.flip();
+        int payloadLength = payload.remaining();
+
+        ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(rows)
+                .putLong(minMicros).putLong(maxMicros)
+                .putDouble(minAmount).putDouble(maxAmount)
+                .putInt(payloadLength).putInt(rawLength)
+                .flip();
+        out.write(header);
+        out.write(payload);
+    }
+
+    private static ByteBuffer deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ChunkBuffer out = new ChunkBuffer(data.length / 2);
+            byte[] buffer = new byte[1 << 16];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(ByteBuffer.wrap(buffer, 0, length));
+            }
+            return out.toByteBuffer();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.finance.infra.export;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Чтение файла ColumnarExporter. Заголовки блоков читаются без данных: блок, чей интервал времени
+// не пересекает запрошенный диапазон, пропускается целиком, без чтения и распаковки колонок
+public class ColumnarReader implements Closeable {
+    private final FileChannel channel;
+    private final boolean deflated;
+
+    // Итог чтения: сколько блоков прочитано и пропущено по статистике, сколько строк передано
+    public record ScanResult(int chunksRead, int chunksSkipped, long rows) {
+    }
+
+    public ColumnarReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readFully(0, ColumnarExporter.FILE_HEADER_SIZE);
+            if (header.getInt() != ColumnarExporter.MAGIC || header.get() != ColumnarExporter.VERSION) {
+                throw new IOException("Файл не является колоночным экспортом: " + file);
+            }
+            byte codec = header.get();
+            if (codec != ColumnarExporter.CODEC_NONE && codec != ColumnarExporter.CODEC_DEFLATE) {
+                throw new IOException("Неизвестный способ сжатия колоночного файла: " + codec);
+            }
+            this.deflated = codec == ColumnarExporter.CODEC_DEFLATE;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public ScanResult read(Consumer<ColumnChunk> sink) throws IOException {
+        return read(null, null, sink);
+    }
+
+    // Строки с временем в [from, toExclusive); null означает отсутствие границы
+    public ScanResult read(LocalDateTime from, LocalDateTime toExclusive, Consumer<ColumnChunk> sink)
+            throws IOException {
+        long fromMicros = from != null ? ColumnarExporter.toMicros(from) : Long.MIN_VALUE;
+        long toMicros = toExclusive != null ? ColumnarExporter.toMicros(toExclusive) : Long.MAX_VALUE;
+        int chunksRead = 0;
+        int chunksSkipped = 0;
+        long rows = 0;
+
+        long position = ColumnarExporter.FILE_HEADER_SIZE;
+        long end = channel.size();
+        while (position < end) {
+            ByteBuffer header = readFully(position, ColumnarExporter.CHUNK_HEADER_SIZE);
+            int size = header.getInt();
+            long minMicros = header.getLong();
+            long maxMicros = header.getLong();
+            header.position(header.position() + 2 * Double.BYTES);
+            int payloadLength = header.getInt();
+            int rawLength = header.getInt();
+            position += ColumnarExporter.CHUNK_HEADER_SIZE;
+
+            if (maxMicros < fromMicros || minMicros >= toMicros) {
+                chunksSkipped++;
+            } else {
+                ColumnChunk chunk = decode(size, readPayload(position, payloadLength, rawLength));
+                if (minMicros < fromMicros || maxMicros >= toMicros) {
+                    chunk = chunk.filter(fromMicros, toMicros);
+                }
+                chunksRead++;
+                rows += chunk.size();
+                sink.accept(chunk);
+            }
+            position += payloadLength;
+        }
+        return new ScanResult(chunksRead, chunksSkipped, rows);
+    }
+
+    private ByteBuffer readPayload(long position, int payloadLength, int rawLength) throws IOException {
+        ByteBuffer payload = readFully(position, payloadLength);
+        if (!deflated) {
+            return payload;
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(payload);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("Поврежденный блок колоночного файла");
+            }
+            return ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (DataFormatException e) {
+            throw new IOException("Поврежденный блок колоночного файла", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ColumnChunk decode(int size, ByteBuffer raw) {
+        long[] timestamps = new long[size];
+        double[] amounts = new double[size];
+        int[] categoryIds = new int[size];
+        byte[] types = new byte[size];
+
+        raw.asLongBuffer().get(timestamps);
+        raw.position(raw.position() + size * Long.BYTES);
+        raw.asDoubleBuffer().get(amounts);
+        raw.position(raw.position() + size * Double.BYTES);
+        raw.asIntBuffer().get(categoryIds);
+        raw.position(raw.position() + size * Integer.BYTES);
+        raw.get(types);
+
+        String[] dictionary = new String[raw.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] name = new byte[raw.getInt()];
+            raw.get(name);
+            dictionary[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return new ColumnChunk(size, timestamps, amounts, categoryIds, types, dictionary);
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Колоночный файл обрезан");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
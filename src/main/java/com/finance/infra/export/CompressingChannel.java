@@ -0,0 +1,175 @@
+package com.finance.infra.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Канал со сжатием в отдельном потоке: записанные байты собираются в блоки и через ограниченную очередь
+// передаются потоку сжатия, так что форматирование и сжатие идут одновременно.
+// Блоки переиспользуются, в памяти не больше QUEUE_CAPACITY + 2 блоков
+public class CompressingChannel implements GatheringByteChannel {
+    static final int BLOCK_SIZE = 1 << 18;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private record Block(byte[] data, int length) {
+    }
+
+    private static final Block END = new Block(new byte[0], -1);
+
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<byte[]> free;
+    private final Thread compressor;
+    private volatile Throwable failure;
+    private byte[] current;
+    private int position;
+    private boolean open;
+
+    public CompressingChannel(OutputStream target, Compression compression) throws IOException {
+        OutputStream compressed;
+        try {
+            compressed = compression.wrap(new BufferedOutputStream(target, BLOCK_SIZE));
+        } catch (IOException | RuntimeException e) {
+            // Канал еще не создан и поток ему не передан: без закрытия здесь файл остался бы открытым
+            try {
+                target.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        this.filled = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+        this.current = new byte[BLOCK_SIZE];
+        this.open = true;
+        this.compressor = Thread.ofPlatform().name("export-compressor").daemon().start(() -> compress(compressed));
+    }
+
+    private void compress(OutputStream out) {
+        try (out) {
+            Block block;
+            while ((block = filled.take()) != END) {
+                out.write(block.data(), 0, block.length());
+                free.offer(block.data());
+            }
+        } catch (Throwable e) {
+            failure = e;
+            // Освобождаем производителя: блоки дочитываются без записи до конца потока
+            try {
+                while (filled.take() != END) {
+                    // пропуск
+                }
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        ensureOpen();
+        int written = source.remaining();
+        while (source.hasRemaining()) {
+            int length = Math.min(source.remaining(), current.length - position);
+            source.get(current, position, length);
+            position += length;
+            if (position == current.length) {
+                submit();
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            written += write(sources[i]);
+        }
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] sources) throws IOException {
+        return write(sources, 0, sources.length);
+    }
+
+    private void submit() throws IOException {
+        checkFailure();
+        try {
+            filled.put(new Block(current, position));
+            byte[] next = free.poll();
+            current = next != null ? next : new byte[BLOCK_SIZE];
+            position = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Сжатие прервано", e);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable error = failure;
+        if (error instanceof IOException io) {
+            throw io;
+        }
+        if (error != null) {
+            throw new IOException("Ошибка сжатия", error);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        IOException error = null;
+        try {
+            if (position > 0) {
+                submit();
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        // Маркер конца отправляется всегда, даже при прерывании (отмена экспорта), иначе поток сжатия
+        // останется ждать. Поток сжатия разбирает очередь сам, поэтому ожидание ограничено
+        boolean interrupted = Thread.interrupted();
+        while (true) {
+            try {
+                filled.put(END);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        while (compressor.isAlive()) {
+            try {
+                compressor.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+        checkFailure();
+    }
+}
@@ -0,0 +1,43 @@
+package com.finance.infra.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public enum Compression {
+    NONE(""),
+    GZIP(".gz"),
+    DEFLATE(".deflate");
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String withExtension(String filename) {
+        return filename.endsWith(extension) ? filename : filename + extension;
+    }
+
+    OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, CompressingChannel.BLOCK_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(out, true);
+        };
+    }
+
+    // Флаги командной строки --gzip и --deflate
+    public static Compression fromFlag(String flag) {
+        return switch (flag) {
+            case "--gzip" -> GZIP;
+            case "--deflate" -> DEFLATE;
+            default -> throw new IllegalArgumentException("Неизвестный вид сжатия: " + flag);
+        };
+    }
+}
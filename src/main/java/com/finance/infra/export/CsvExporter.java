@@ -2,104 +2,186 @@ package com.finance.infra.export;
 
 import com.finance.core.model.*;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
 
 public class CsvExporter implements ReportExporter {
-    private static final String DELIMITER = ";";
+    private static final char DELIMITER = ';';
     private static final String LINE_SEPARATOR = System.lineSeparator();
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final char decimalSeparator;
+    private final Compression compression;
+
+    public CsvExporter() {
+        this(Compression.NONE);
+    }
+
+    public CsvExporter(Compression compression) {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, compression);
+    }
+
+    public CsvExporter(int parallelism, int chunkSize) {
+        this(parallelism, chunkSize, Compression.NONE);
+    }
+
+    public CsvExporter(int parallelism, int chunkSize, Compression compression) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.compression = Objects.requireNonNull(compression, "Compression cannot be null");
+        // Разделитель дробной части берется из локали, как раньше у String.format("%.2f")
+        this.decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT))
+                .getDecimalSeparator();
+    }
 
     @Override
-    public void export(Wallet wallet, String filename) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
+    public void export(WalletView wallet, String filename) throws IOException {
+        try (GatheringByteChannel channel = open(filename, false)) {
+            CsvWriter writer = newWriter(channel);
             writeHeader(wallet, writer);
-            writeTransactions(wallet, writer);
+            writer.flush();
+            writeTransactions(wallet, channel, 0, wallet.getTransactionCount());
             writeSummary(wallet, writer);
+            writer.flush();
         }
     }
 
-    private void writeHeader(Wallet wallet, FileWriter writer) throws IOException {
-        writer.write("Financial Data Export" + LINE_SEPARATOR);
-        writer.write("User: " + escapeCsvField(wallet.getUsername()) + LINE_SEPARATOR);
-        writer.write("Export Date: " + java.time.LocalDate.now() + LINE_SEPARATOR);
-        writer.write(LINE_SEPARATOR);
-
-        writer.write("Date" + DELIMITER + "Type" + DELIMITER + "Category" +
-                DELIMITER + "Amount" + DELIMITER + "Description" + LINE_SEPARATOR);
-    }
-
-    private void writeTransactions(Wallet wallet, FileWriter writer) throws IOException {
-        for (Transaction transaction : wallet.getTransactions()) {
-            writer.write(String.format("%s%s%s%s%s%s%.2f%s%s%s",
-                    transaction.getDate().format(DATE_FORMATTER),
-                    DELIMITER,
-                    transaction.getType(),
-                    DELIMITER,
-                    escapeCsvField(transaction.getCategory()),
-                    DELIMITER,
-                    transaction.getAmount(),
-                    DELIMITER,
-                    escapeCsvField(transaction.getDescription()),
-                    LINE_SEPARATOR
-            ));
+    // Сжатый вывод дописывается новым членом gzip; поток deflate продолжить нельзя
+    private GatheringByteChannel open(String filename, boolean append) throws IOException {
+        Path path = Path.of(filename);
+        StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        if (compression == Compression.NONE) {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
         }
+        return new CompressingChannel(Files.newOutputStream(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, mode), compression);
     }
 
-    private void writeSummary(Wallet wallet, FileWriter writer) throws IOException {
-        writer.write(LINE_SEPARATOR);
-        writer.write("SUMMARY" + LINE_SEPARATOR);
-        writer.write("Total Income" + DELIMITER + String.format("%.2f", wallet.getTotalIncome()) + LINE_SEPARATOR);
-        writer.write("Total Expenses" + DELIMITER + String.format("%.2f", wallet.getTotalExpenses()) + LINE_SEPARATOR);
-        writer.write("Balance" + DELIMITER + String.format("%.2f", wallet.getBalance()) + LINE_SEPARATOR);
+    private CsvWriter newWriter(WritableByteChannel channel) {
+        return new CsvWriter(channel, DELIMITER, decimalSeparator, LINE_SEPARATOR);
     }
 
-    private String escapeCsvField(String field) {
-        if (field == null || field.isEmpty()) {
-            return "";
+    private void writeHeader(WalletView wallet, CsvWriter writer) throws IOException {
+        writer.text("Financial Data Export").endRow();
+        writer.text("User: ").field(wallet.getUsername()).endRow();
+        writer.text("Export Date: " + LocalDate.now()).endRow();
+        writer.endRow();
+
+        writer.rawField("Date").rawField("Type").rawField("Category").rawField("Amount").rawField("Description")
+                .endRow();
+    }
+
+    private void writeTransactions(WalletView wallet, GatheringByteChannel channel, int from, int to) throws IOException {
+        ChunkedExport.write(channel, wallet, from, to, chunkSize, parallelism, (chunk, out) -> {
+            CsvWriter writer = newWriter(out);
+            for (Transaction transaction : chunk) {
+                writeTransaction(transaction, writer);
+            }
+            writer.flush();
+        });
+    }
+
+    private void writeTransaction(Transaction transaction, CsvWriter writer) throws IOException {
+        writer.field(transaction.getDate().toLocalDate())
+                .rawField(transaction.getType().name())
+                .field(transaction.getCategory())
+                .field(transaction.getAmount())
+                .field(transaction.getDescription())
+                .endRow();
+    }
+
+    private void writeSummary(WalletView wallet, CsvWriter writer) throws IOException {
+        writer.endRow();
+        writer.text("SUMMARY").endRow();
+        writer.rawField("Total Income").field(wallet.getTotalIncome()).endRow();
+        writer.rawField("Total Expenses").field(wallet.getTotalExpenses()).endRow();
+        writer.rawField("Balance").field(wallet.getBalance()).endRow();
+    }
+
+    public void exportTransactions(WalletView wallet, String filename) throws IOException {
+        exportTransactions(wallet, filename, wallet.getTransactionCount());
+    }
+
+    private void exportTransactions(WalletView wallet, String filename, int count) throws IOException {
+        try (GatheringByteChannel channel = open(filename, false)) {
+            CsvWriter writer = newWriter(channel);
+            writeHeader(wallet, writer);
+            writer.flush();
+            writeTransactions(wallet, channel, 0, count);
         }
+    }
 
-        if (field.contains(DELIMITER) || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
+    // Дописывает в файл только транзакции после отметки, сохраненной в кошельке для этого файла.
+    // Если файла или отметки нет, файл создается заново со всей историей
+    public IncrementalExport exportIncremental(Wallet wallet, String filename) throws IOException {
+        if (compression == Compression.DEFLATE) {
+            throw new IllegalArgumentException("Инкрементальный экспорт не поддерживает сжатие deflate");
+        }
+        Path path = Path.of(filename).toAbsolutePath().normalize();
+        String target = watermarkKey(filename);
+        int count = wallet.getTransactionCount();
+        int watermark = wallet.getExportWatermark(target);
+
+        if (watermark == 0 || watermark > count || !Files.exists(path)) {
+            exportTransactions(wallet, filename, count);
+            wallet.setExportWatermark(target, count);
+            return new IncrementalExport(filename, count);
         }
 
-        return field;
+        try (GatheringByteChannel channel = open(filename, true)) {
+            writeTransactions(wallet, channel, watermark, count);
+        }
+        wallet.setExportWatermark(target, count);
+        return new IncrementalExport(filename, count - watermark);
     }
 
-    public void exportTransactions(Wallet wallet, String filename) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
-            writeHeader(wallet, writer);
-            writeTransactions(wallet, writer);
+    // Полный экспорт переписывает файл, поэтому отметка инкрементального экспорта для него переносится на число
+    // выгруженных транзакций. Для бюджетов и отчета full это 0: следующий incremental перепишет файл целиком
+    public void markFullExport(Wallet wallet, String filename, int exported) {
+        String target = watermarkKey(filename);
+        if (wallet.getExportWatermark(target) != exported) {
+            wallet.setExportWatermark(target, exported);
         }
     }
 
-    public void exportBudgets(Wallet wallet, String filename) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
-            writer.write("Budget Report" + LINE_SEPARATOR);
-            writer.write("User: " + escapeCsvField(wallet.getUsername()) + LINE_SEPARATOR);
-            writer.write(LINE_SEPARATOR);
+    private static String watermarkKey(String filename) {
+        return "csv:" + Path.of(filename).toAbsolutePath().normalize();
+    }
+
+    public void exportBudgets(WalletView wallet, String filename) throws IOException {
+        try (CsvWriter writer = newWriter(open(filename, false))) {
+            writer.text("Budget Report").endRow();
+            writer.text("User: ").field(wallet.getUsername()).endRow();
+            writer.endRow();
 
-            writer.write("Category" + DELIMITER + "Limit" + DELIMITER +
-                    "Spent" + DELIMITER + "Remaining" + DELIMITER + "Status" + LINE_SEPARATOR);
+            writer.rawField("Category").rawField("Limit").rawField("Spent").rawField("Remaining").rawField("Status")
+                    .endRow();
 
             for (Budget budget : wallet.getBudgets().values()) {
                 String status = budget.isExceeded() ? "EXCEEDED" :
                         budget.isWarningThresholdReached() ? "WARNING" : "OK";
 
-                writer.write(String.format("%s%s%.2f%s%.2f%s%.2f%s%s%s",
-                        escapeCsvField(budget.getCategory()),
-                        DELIMITER,
-                        budget.getLimit(),
-                        DELIMITER,
-                        budget.getSpent(),
-                        DELIMITER,
-                        budget.getRemaining(),
-                        DELIMITER,
-                        status,
-                        LINE_SEPARATOR
-                ));
+                writer.field(budget.getCategory())
+                        .field(budget.getLimit())
+                        .field(budget.getSpent())
+                        .field(budget.getRemaining())
+                        .rawField(status)
+                        .endRow();
             }
         }
     }
-}
\ No newline at end of file
+}
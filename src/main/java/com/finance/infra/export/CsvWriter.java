@@ -0,0 +1,248 @@
+package com.finance.infra.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+
+// Запись CSV в UTF-8 напрямую в байтовый буфер с выводом в канал.
+// Суммы форматируются с двумя знаками так же, как "%.2f", но без String.format на каждую строку
+public class CsvWriter implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    // Запас под самый длинный неделимый элемент: символ UTF-8 или число
+    private static final int MAX_ATOM_SIZE = 32;
+    private static final double FAST_PATH_LIMIT = 1e9;
+    private static final double HALF_CENT_TOLERANCE = 1e-4;
+    private static final double LONG_PATH_LIMIT = 1e16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final char delimiter;
+    private final char decimalSeparator;
+    private final String lineSeparator;
+    private boolean rowStarted;
+
+    public CsvWriter(WritableByteChannel channel, char delimiter, char decimalSeparator, String lineSeparator) {
+        this(channel, delimiter, decimalSeparator, lineSeparator, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvWriter(WritableByteChannel channel, char delimiter, char decimalSeparator, String lineSeparator,
+                     int bufferSize) {
+        this.channel = Objects.requireNonNull(channel, "Channel cannot be null");
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_ATOM_SIZE * 2));
+        this.delimiter = delimiter;
+        this.decimalSeparator = decimalSeparator;
+        this.lineSeparator = lineSeparator;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        startField();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (needsQuoting(value)) {
+            writeChar('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    writeChar('"');
+                }
+                i = writeChar(value, i);
+            }
+            writeChar('"');
+        } else {
+            writeText(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(double value) throws IOException {
+        startField();
+        writeFixed2(value);
+        return this;
+    }
+
+    public CsvWriter field(LocalDate date) throws IOException {
+        startField();
+        ensureCapacity(MAX_ATOM_SIZE);
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writeText(date.toString());
+            return this;
+        }
+        putDigits(year, 4);
+        buffer.put((byte) '-');
+        putDigits(date.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    // Значение без экранирования, например уже готовое перечисление
+    public CsvWriter rawField(String value) throws IOException {
+        startField();
+        writeText(value);
+        return this;
+    }
+
+    // Произвольный текст вне структуры полей: заголовки отчета, пустые строки
+    public CsvWriter text(String value) throws IOException {
+        writeText(value);
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        writeText(lineSeparator);
+        rowStarted = false;
+        return this;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void startField() throws IOException {
+        if (rowStarted) {
+            writeChar(delimiter);
+        }
+        rowStarted = true;
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Formatter округляет HALF_UP кратчайшую десятичную запись числа (1.005 -> 1.01). Умножение на 100
+    // неточно, поэтому значения около половины копейки и большие суммы округляются через BigDecimal.valueOf
+    private void writeFixed2(double value) throws IOException {
+        if (!(Math.abs(value) < LONG_PATH_LIMIT)) {
+            writeText(String.format(Locale.ROOT, "%.2f", value).replace('.', decimalSeparator));
+            return;
+        }
+
+        double magnitude = Math.abs(value);
+        long cents;
+        if (magnitude < FAST_PATH_LIMIT) {
+            double scaled = magnitude * 100;
+            cents = (long) scaled;
+            double fraction = scaled - cents;
+            if (Math.abs(fraction - 0.5) < HALF_CENT_TOLERANCE) {
+                cents = exactCents(magnitude);
+            } else if (fraction > 0.5) {
+                cents++;
+            }
+        } else {
+            cents = exactCents(magnitude);
+        }
+
+        ensureCapacity(MAX_ATOM_SIZE);
+        if (value < 0 || value == 0 && 1 / value < 0) {
+            buffer.put((byte) '-');
+        }
+        long units = cents / 100;
+        int unitsStart = buffer.position();
+        do {
+            buffer.put((byte) ('0' + units % 10));
+            units /= 10;
+        } while (units > 0);
+        reverse(unitsStart, buffer.position() - 1);
+        buffer.put((byte) decimalSeparator);
+        putDigits((int) (cents % 100), 2);
+    }
+
+    private static long exactCents(double magnitude) {
+        return BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void reverse(int from, int to) {
+        byte[] array = buffer.array();
+        while (from < to) {
+            byte tmp = array[from];
+            array[from++] = array[to];
+            array[to--] = tmp;
+        }
+    }
+
+    private void putDigits(int value, int width) {
+        int end = buffer.position() + width;
+        byte[] array = buffer.array();
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            array[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private void writeText(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = writeChar(value, i);
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        ensureCapacity(MAX_ATOM_SIZE);
+        putChar(c);
+    }
+
+    // Кодирует символ с позиции index и возвращает индекс последнего использованного символа
+    private int writeChar(String value, int index) throws IOException {
+        ensureCapacity(MAX_ATOM_SIZE);
+        char c = value.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            return index + 1;
+        }
+        putChar(c);
+        return index;
+    }
+
+    private void putChar(char c) {
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.finance.infra.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Фоновый экспорт: состояние, прогресс в строках и байтах, ошибка. Прогресс строк считается по транзакциям,
+// прочитанным экспортером из снимка, байты - по текущему размеру файла
+public class ExportJob {
+    public enum State {
+        RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final int id;
+    private final String description;
+    private final Path file;
+    private final int totalRows;
+    private final long started;
+    private final AtomicLong rows;
+    private volatile State state;
+    private volatile String error;
+    private volatile long finished;
+    private volatile Future<?> future;
+    private final CountDownLatch done;
+
+    ExportJob(int id, String description, Path file, int totalRows) {
+        this.id = id;
+        this.description = description;
+        this.file = file;
+        this.totalRows = totalRows;
+        this.started = System.nanoTime();
+        this.rows = new AtomicLong();
+        this.state = State.RUNNING;
+        this.done = new CountDownLatch(1);
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+    }
+
+    void addRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    synchronized void complete() {
+        if (state == State.RUNNING) {
+            state = State.COMPLETED;
+            finished = System.nanoTime();
+        }
+    }
+
+    synchronized void fail(Throwable e) {
+        if (state == State.RUNNING) {
+            state = State.FAILED;
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+            finished = System.nanoTime();
+        }
+    }
+
+    // Вызывается потоком задания последним, после удаления недописанного файла
+    void finish() {
+        done.countDown();
+    }
+
+    void await() throws InterruptedException {
+        done.await();
+    }
+
+    // Отмена прерывает поток задания; недописанный файл удаляет сам поток при выходе
+    public synchronized boolean cancel() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        state = State.CANCELLED;
+        finished = System.nanoTime();
+        Future<?> running = future;
+        if (running != null) {
+            running.cancel(true);
+        }
+        return true;
+    }
+
+    public long getBytes() {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public long getElapsedMillis() {
+        long end = state == State.RUNNING ? System.nanoTime() : finished;
+        return (end - started) / 1_000_000;
+    }
+
+    public int getId() { return id; }
+    public String getDescription() { return description; }
+    public Path getFile() { return file; }
+    public int getTotalRows() { return totalRows; }
+    public long getRows() { return Math.min(rows.get(), totalRows); }
+    public State getState() { return state; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,188 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Budget;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.WalletView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Фоновые экспорты на виртуальных потоках. Задание получает снимок кошелька, снятый при постановке,
+// поэтому пользователь может продолжать добавлять транзакции, не влияя на выгружаемые данные.
+// Снимок оборачивается счетчиком: прочитанные строки идут в прогресс, а после отмены чтение прерывается.
+// Действие после успешного экспорта выполняется не потоком задания, а в runCompletions, в потоке команд:
+// оно может менять кошелек, который задание не трогает
+public class ExportJobs implements AutoCloseable {
+    public interface Task {
+        void run(WalletView wallet) throws IOException;
+    }
+
+    private final ExecutorService executor;
+    private final Map<Integer, ExportJob> jobs;
+    private final AtomicInteger nextId;
+    private final Queue<Runnable> completions;
+
+    public ExportJobs() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.jobs = new ConcurrentHashMap<>();
+        this.nextId = new AtomicInteger(1);
+        this.completions = new ConcurrentLinkedQueue<>();
+    }
+
+    public ExportJob submit(String description, String filename, WalletView snapshot, Task task) {
+        return submit(description, filename, snapshot, task, null);
+    }
+
+    public ExportJob submit(String description, String filename, WalletView snapshot, Task task, Runnable onSuccess) {
+        ExportJob job = new ExportJob(nextId.getAndIncrement(), description, Path.of(filename),
+                snapshot.getTransactionCount());
+        jobs.put(job.getId(), job);
+        job.attach(executor.submit(() -> run(job, snapshot, task, onSuccess)));
+        return job;
+    }
+
+    private void run(ExportJob job, WalletView snapshot, Task task, Runnable onSuccess) {
+        try {
+            task.run(new ProgressView(snapshot, job));
+            job.complete();
+        } catch (Throwable e) {
+            job.fail(e);
+        }
+        if (job.getState() == ExportJob.State.COMPLETED) {
+            if (onSuccess != null) {
+                completions.add(onSuccess);
+            }
+        } else {
+            try {
+                Files.deleteIfExists(job.getFile());
+            } catch (IOException ignored) {
+                // файл остается, в состоянии задания уже есть причина
+            }
+        }
+        job.finish();
+    }
+
+    public void await(ExportJob job) {
+        try {
+            job.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание экспорта прервано", e);
+        }
+    }
+
+    // Выполняет действия заданий, успешно завершившихся с прошлого вызова
+    public int runCompletions() {
+        int completed = 0;
+        Runnable completion;
+        while ((completion = completions.poll()) != null) {
+            completion.run();
+            completed++;
+        }
+        return completed;
+    }
+
+    // Пишет ли выполняющееся задание в этот файл
+    public boolean isWriting(String filename) {
+        Path file = Path.of(filename).toAbsolutePath().normalize();
+        return jobs.values().stream().anyMatch(job -> job.getState() == ExportJob.State.RUNNING
+                && job.getFile().toAbsolutePath().normalize().equals(file));
+    }
+
+    public Optional<ExportJob> get(int id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<ExportJob> list() {
+        List<ExportJob> result = new ArrayList<>(jobs.values());
+        result.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    public long countRunning() {
+        return jobs.values().stream().filter(job -> job.getState() == ExportJob.State.RUNNING).count();
+    }
+
+    // Ждет завершения запущенных заданий
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private static final class ProgressView implements WalletView {
+        private final WalletView snapshot;
+        private final ExportJob job;
+
+        ProgressView(WalletView snapshot, ExportJob job) {
+            this.snapshot = snapshot;
+            this.job = job;
+        }
+
+        private void checkCancelled() {
+            if (job.isCancelled() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Экспорт отменен");
+            }
+        }
+
+        private Stream<Transaction> track(Stream<Transaction> transactions) {
+            checkCancelled();
+            return transactions.peek(transaction -> {
+                checkCancelled();
+                job.addRows(1);
+            });
+        }
+
+        @Override
+        public List<Transaction> getTransactions(int from, int to) {
+            checkCancelled();
+            job.addRows(to - from);
+            return snapshot.getTransactions(from, to);
+        }
+
+        @Override
+        public List<Transaction> getTransactions() {
+            checkCancelled();
+            job.addRows(snapshot.getTransactionCount());
+            return snapshot.getTransactions();
+        }
+
+        @Override
+        public Stream<Transaction> streamTransactions() {
+            return track(snapshot.streamTransactions());
+        }
+
+        @Override
+        public Stream<Transaction> streamTransactions(int from, int to) {
+            return track(snapshot.streamTransactions(from, to));
+        }
+
+        @Override
+        public String getUsername() { return snapshot.getUsername(); }
+        @Override
+        public double getBalance() { return snapshot.getBalance(); }
+        @Override
+        public double getTotalIncome() { return snapshot.getTotalIncome(); }
+        @Override
+        public double getTotalExpenses() { return snapshot.getTotalExpenses(); }
+        @Override
+        public int getTransactionCount() { return snapshot.getTransactionCount(); }
+        @Override
+        public Map<String, Budget> getBudgets() { return snapshot.getBudgets(); }
+        @Override
+        public Set<String> getCategories() { return snapshot.getCategories(); }
+    }
+}
@@ -0,0 +1,5 @@
+package com.finance.infra.export;
+
+// Итог инкрементального экспорта: файл, в который записаны новые транзакции, и их количество
+public record IncrementalExport(String filename, int exported) {
+}
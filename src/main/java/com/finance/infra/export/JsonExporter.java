@@ -1,66 +1,195 @@
 package com.finance.infra.export;
 
 import com.finance.core.model.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.Objects;
 
-public class JsonExporter {
-    private final ObjectMapper objectMapper;
+// Документ пишется потоково через JsonGenerator: транзакции читаются из кошелька по одной,
+// поэтому память не зависит от числа транзакций
+public class JsonExporter implements ReportExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final JsonFactory jsonFactory;
+    private final Compression compression;
 
     public JsonExporter() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        this.objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        this(Compression.NONE);
+    }
+
+    public JsonExporter(Compression compression) {
+        this.compression = Objects.requireNonNull(compression, "Compression cannot be null");
+        // Поток, переданный вызывающим кодом, закрывает он сам
+        this.jsonFactory = JsonFactory.builder()
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+                .build();
+    }
+
+    @Override
+    public void export(WalletView wallet, String filename) throws IOException {
+        exportWallet(wallet, filename);
+    }
+
+    public void exportWallet(WalletView wallet, String filename) throws IOException {
+        try (OutputStream out = open(Path.of(filename))) {
+            exportWallet(wallet, out);
+        }
+    }
+
+    // Сжатие идет в отдельном потоке параллельно с формированием документа
+    private OutputStream open(Path path) throws IOException {
+        OutputStream file = Files.newOutputStream(path);
+        if (compression == Compression.NONE) {
+            return new BufferedOutputStream(file, BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(Channels.newOutputStream(new CompressingChannel(file, compression)),
+                BUFFER_SIZE);
     }
 
-    public void exportWallet(Wallet wallet, String filename) throws IOException {
-        Map<String, Object> walletData = new HashMap<>();
+    public void exportWallet(WalletView wallet, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
 
-        walletData.put("username", wallet.getUsername());
-        walletData.put("balance", wallet.getBalance());
-        walletData.put("totalIncome", wallet.getTotalIncome());
-        walletData.put("totalExpenses", wallet.getTotalExpenses());
+            generator.writeStringField("username", wallet.getUsername());
+            generator.writeNumberField("balance", wallet.getBalance());
+            generator.writeNumberField("totalIncome", wallet.getTotalIncome());
+            generator.writeNumberField("totalExpenses", wallet.getTotalExpenses());
 
-        walletData.put("transactions", wallet.getTransactions().stream()
-                .map(this::transactionToMap)
-                .toArray());
+            generator.writeArrayFieldStart("transactions");
+            char[] dateBuffer = new char[32];
+            Iterator<Transaction> transactions = wallet.streamTransactions().iterator();
+            while (transactions.hasNext()) {
+                writeTransaction(generator, transactions.next(), dateBuffer);
+            }
+            generator.writeEndArray();
 
-        walletData.put("budgets", wallet.getBudgets().values().stream()
-                .map(this::budgetToMap)
-                .toArray());
+            generator.writeArrayFieldStart("budgets");
+            for (Budget budget : wallet.getBudgets().values()) {
+                writeBudget(generator, budget);
+            }
+            generator.writeEndArray();
 
-        walletData.put("categories", wallet.getCategories());
+            generator.writeArrayFieldStart("categories");
+            for (String category : wallet.getCategories()) {
+                generator.writeString(category);
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    // Новые транзакции после отметки пишутся в отдельный сегмент <имя>.<первый номер>.json,
+    // который читается JsonImporter так же, как полный экспорт. Без новых транзакций сегмент не создается
+    public IncrementalExport exportIncremental(Wallet wallet, String filename) throws IOException {
+        String base = filename.endsWith(".json") ? filename.substring(0, filename.length() - 5) : filename;
+        String target = "json:" + Path.of(base).toAbsolutePath().normalize();
+        int count = wallet.getTransactionCount();
+        int watermark = wallet.getExportWatermark(target);
+        if (watermark > count) {
+            watermark = 0;
+        }
+        if (watermark == count) {
+            return new IncrementalExport(null, 0);
+        }
+
+        String segment = compression.withExtension(String.format("%s.%010d.json", base, watermark));
+        try (OutputStream out = open(Path.of(segment));
+             JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeStringField("username", wallet.getUsername());
+            generator.writeNumberField("fromOrdinal", watermark);
+            generator.writeNumberField("toOrdinal", count);
+
+            generator.writeArrayFieldStart("transactions");
+            char[] dateBuffer = new char[32];
+            Iterator<Transaction> transactions = wallet.streamTransactions(watermark, count).iterator();
+            while (transactions.hasNext()) {
+                writeTransaction(generator, transactions.next(), dateBuffer);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        wallet.setExportWatermark(target, count);
+        return new IncrementalExport(segment, count - watermark);
+    }
+
+    static void writeTransaction(JsonGenerator generator, Transaction transaction, char[] dateBuffer)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", transaction.getId());
+        generator.writeStringField("type", transaction.getType().toString());
+        generator.writeStringField("category", transaction.getCategory());
+        generator.writeNumberField("amount", transaction.getAmount());
+        generator.writeFieldName("date");
+        int length = formatDate(transaction.getDate(), dateBuffer);
+        generator.writeString(dateBuffer, 0, length);
+        generator.writeStringField("description", transaction.getDescription());
+        generator.writeEndObject();
+    }
 
-        objectMapper.writeValue(new FileWriter(filename), walletData);
+    // Тот же вид, что у ISO_LOCAL_DATE_TIME, без промежуточных строк: yyyy-MM-ddTHH:mm:ss[.nnnnnnnnn]
+    static int formatDate(LocalDateTime date, char[] buffer) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            String text = date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            text.getChars(0, text.length(), buffer, 0);
+            return text.length();
+        }
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, date.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, date.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, date.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, date.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, date.getSecond(), 2);
+        int nano = date.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        writeDigits(buffer, 20, nano, 9);
+        int length = 29;
+        while (buffer[length - 1] == '0') {
+            length--;
+        }
+        return length;
     }
 
-    private Map<String, Object> transactionToMap(Transaction transaction) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", transaction.getId());
-        map.put("type", transaction.getType().toString());
-        map.put("category", transaction.getCategory());
-        map.put("amount", transaction.getAmount());
-        map.put("date", transaction.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-        map.put("description", transaction.getDescription());
-        return map;
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 
-    private Map<String, Object> budgetToMap(Budget budget) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("category", budget.getCategory());
-        map.put("limit", budget.getLimit());
-        map.put("spent", budget.getSpent());
-        map.put("remaining", budget.getRemaining());
-        map.put("warningThreshold", budget.getWarningThreshold());
-        map.put("exceeded", budget.isExceeded());
-        return map;
+    private void writeBudget(JsonGenerator generator, Budget budget) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("category", budget.getCategory());
+        generator.writeNumberField("limit", budget.getLimit());
+        generator.writeNumberField("spent", budget.getSpent());
+        generator.writeNumberField("remaining", budget.getRemaining());
+        generator.writeNumberField("warningThreshold", budget.getWarningThreshold());
+        generator.writeBooleanField("exceeded", budget.isExceeded());
+        generator.writeEndObject();
     }
-}
\ No newline at end of file
+}
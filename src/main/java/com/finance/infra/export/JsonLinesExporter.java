@@ -0,0 +1,79 @@
+package com.finance.infra.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.WalletView;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+// Транзакции в формате JSON Lines: по одному объекту на строку, поля как у JsonExporter.
+// Блоки форматируются параллельно и записываются по порядку
+public class JsonLinesExporter implements ReportExporter {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final JsonFactory jsonFactory;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Compression compression;
+
+    public JsonLinesExporter() {
+        this(Compression.NONE);
+    }
+
+    public JsonLinesExporter(Compression compression) {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, compression);
+    }
+
+    public JsonLinesExporter(int parallelism, int chunkSize) {
+        this(parallelism, chunkSize, Compression.NONE);
+    }
+
+    public JsonLinesExporter(int parallelism, int chunkSize, Compression compression) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.compression = Objects.requireNonNull(compression, "Compression cannot be null");
+        this.jsonFactory = new JsonFactoryBuilder()
+                .rootValueSeparator((String) null)
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+                .build();
+    }
+
+    @Override
+    public void export(WalletView wallet, String filename) throws IOException {
+        try (GatheringByteChannel channel = open(Path.of(filename))) {
+            ChunkedExport.write(channel, wallet, chunkSize, parallelism, (chunk, out) -> {
+                char[] dateBuffer = new char[32];
+                try (JsonGenerator generator = jsonFactory.createGenerator(Channels.newOutputStream(out),
+                        JsonEncoding.UTF8)) {
+                    for (Transaction transaction : chunk) {
+                        JsonExporter.writeTransaction(generator, transaction, dateBuffer);
+                        generator.writeRaw('\n');
+                    }
+                }
+            });
+        }
+    }
+
+    private GatheringByteChannel open(Path path) throws IOException {
+        if (compression == Compression.NONE) {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+        return new CompressingChannel(Files.newOutputStream(path), compression);
+    }
+}
@@ -1,8 +1,8 @@
 package com.finance.infra.export;
 
-import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletView;
 import java.io.IOException;
 
 public interface ReportExporter {
-    void export(Wallet wallet, String filename) throws IOException;
+    void export(WalletView wallet, String filename) throws IOException;
 }
\ No newline at end of file
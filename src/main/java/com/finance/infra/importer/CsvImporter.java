@@ -0,0 +1,409 @@
+package com.finance.infra.importer;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Файл читается блоками через FileChannel, блок обрезается по последнему концу строки вне кавычек,
+// блоки разбираются параллельно и передаются получателю в порядке следования в файле.
+// В памяти одновременно находится не больше 2 * parallelism блоков
+public class CsvImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+    private final CsvMapping mapping;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public CsvImporter(CsvMapping mapping) {
+        this(mapping, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvImporter(CsvMapping mapping, int parallelism, int chunkSize) {
+        this.mapping = Objects.requireNonNull(mapping, "Mapping cannot be null");
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importFile(Path file, Consumer<List<Transaction>> sink) throws IOException {
+        long started = System.nanoTime();
+        long imported = 0;
+        long skipped = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            byte[] carry = new byte[0];
+            boolean firstChunk = true;
+            boolean eof = false;
+
+            while (!eof) {
+                byte[] chunk = Arrays.copyOf(carry, carry.length + chunkSize);
+                ByteBuffer buffer = ByteBuffer.wrap(chunk, carry.length, chunkSize);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int length = buffer.position();
+
+                int start = 0;
+                if (firstChunk) {
+                    start = skipByteOrderMark(chunk, length);
+                    firstChunk = false;
+                }
+
+                int boundary = eof ? length : lastRecordEnd(chunk, start, length);
+                if (boundary < 0) {
+                    // Запись длиннее блока: переносим все прочитанное и дочитываем
+                    carry = Arrays.copyOfRange(chunk, start, length);
+                    continue;
+                }
+                carry = Arrays.copyOfRange(chunk, boundary, length);
+
+                int from = start;
+                inFlight.add(executor.submit(() -> parse(chunk, from, boundary)));
+                if (inFlight.size() >= 2 * parallelism) {
+                    ParsedChunk parsed = await(inFlight.poll());
+                    sink.accept(parsed.transactions());
+                    imported += parsed.transactions().size();
+                    skipped += parsed.skipped();
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                ParsedChunk parsed = await(inFlight.poll());
+                sink.accept(parsed.transactions());
+                imported += parsed.transactions().size();
+                skipped += parsed.skipped();
+            }
+        }
+
+        return new ImportResult(imported, skipped, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Импорт прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static int skipByteOrderMark(byte[] chunk, int length) {
+        if (length >= 3 && (chunk[0] & 0xFF) == 0xEF && (chunk[1] & 0xFF) == 0xBB && (chunk[2] & 0xFF) == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    // Позиция сразу после последнего перевода строки вне кавычек или -1
+    private static int lastRecordEnd(byte[] chunk, int from, int to) {
+        boolean quoted = false;
+        int end = -1;
+        for (int i = from; i < to; i++) {
+            byte b = chunk[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+
+    private record ParsedChunk(List<Transaction> transactions, int skipped) {
+    }
+
+    private ParsedChunk parse(byte[] chunk, int from, int to) {
+        int columns = mapping.maxColumn() + 1;
+        int[] starts = new int[columns];
+        int[] ends = new int[columns];
+        boolean[] quoted = new boolean[columns];
+        byte delimiter = (byte) mapping.delimiter();
+
+        List<Transaction> transactions = new ArrayList<>();
+        int skipped = 0;
+        int pos = from;
+
+        while (pos < to) {
+            int fields = 0;
+            boolean blank = true;
+
+            while (true) {
+                int start;
+                int end;
+                boolean inQuotes = pos < to && chunk[pos] == '"';
+                if (inQuotes) {
+                    start = ++pos;
+                    while (pos < to) {
+                        if (chunk[pos] == '"') {
+                            if (pos + 1 < to && chunk[pos + 1] == '"') {
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    end = pos;
+                    while (pos < to && chunk[pos] != delimiter && chunk[pos] != '\n') {
+                        pos++;
+                    }
+                } else {
+                    start = pos;
+                    while (pos < to && chunk[pos] != delimiter && chunk[pos] != '\n') {
+                        pos++;
+                    }
+                    end = pos;
+                    while (end > start && (chunk[end - 1] == '\r' || chunk[end - 1] == ' ')) {
+                        end--;
+                    }
+                    while (start < end && chunk[start] == ' ') {
+                        start++;
+                    }
+                }
+
+                if (fields < columns) {
+                    starts[fields] = start;
+                    ends[fields] = end;
+                    quoted[fields] = inQuotes;
+                }
+                fields++;
+                if (inQuotes || end > start) {
+                    blank = false;
+                }
+
+                if (pos < to && chunk[pos] == delimiter) {
+                    pos++;
+                    continue;
+                }
+                if (pos < to) {
+                    pos++;
+                }
+                break;
+            }
+
+            if (blank && fields == 1) {
+                continue;
+            }
+            Transaction transaction = fields >= columns ? toTransaction(chunk, starts, ends, quoted) : null;
+            if (transaction != null) {
+                transactions.add(transaction);
+            } else {
+                skipped++;
+            }
+        }
+
+        return new ParsedChunk(transactions, skipped);
+    }
+
+    private Transaction toTransaction(byte[] chunk, int[] starts, int[] ends, boolean[] quoted) {
+        try {
+            int amountColumn = mapping.amountColumn();
+            double amount = parseAmount(chunk, starts[amountColumn], ends[amountColumn]);
+            if (Double.isNaN(amount)) {
+                return null;
+            }
+
+            TransactionType type;
+            if (mapping.typeColumn() >= 0) {
+                type = parseType(chunk, starts[mapping.typeColumn()], ends[mapping.typeColumn()]);
+                if (type == null) {
+                    return null;
+                }
+            } else {
+                type = amount < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+            }
+
+            LocalDateTime date = LocalDateTime.now();
+            if (mapping.dateColumn() >= 0) {
+                date = parseDate(chunk, starts[mapping.dateColumn()], ends[mapping.dateColumn()]);
+                if (date == null) {
+                    return null;
+                }
+            }
+
+            String category = text(chunk, starts[mapping.categoryColumn()], ends[mapping.categoryColumn()],
+                    quoted[mapping.categoryColumn()]);
+            String description = mapping.descriptionColumn() >= 0
+                    ? text(chunk, starts[mapping.descriptionColumn()], ends[mapping.descriptionColumn()],
+                    quoted[mapping.descriptionColumn()])
+                    : "";
+            return new Transaction(category, Math.abs(amount), type, description, date);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    // Целая и дробная части накапливаются в long; разделитель дробной части - точка или запятая
+    static double parseAmount(byte[] bytes, int from, int to) {
+        if (from >= to) {
+            return Double.NaN;
+        }
+        boolean negative = false;
+        int pos = from;
+        if (bytes[pos] == '-' || bytes[pos] == '+') {
+            negative = bytes[pos] == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; pos < to; pos++) {
+            byte b = bytes[pos];
+            if (b >= '0' && b <= '9') {
+                if (digits == 18) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if ((b == '.' || b == ',') && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static TransactionType parseType(byte[] bytes, int from, int to) {
+        if (equalsIgnoreCase(bytes, from, to, "EXPENSE")) {
+            return TransactionType.EXPENSE;
+        }
+        if (equalsIgnoreCase(bytes, from, to, "INCOME")) {
+            return TransactionType.INCOME;
+        }
+        String value = new String(bytes, from, to - from, StandardCharsets.UTF_8).toLowerCase();
+        return switch (value) {
+            case "расход" -> TransactionType.EXPENSE;
+            case "доход" -> TransactionType.INCOME;
+            default -> null;
+        };
+    }
+
+    private static boolean equalsIgnoreCase(byte[] bytes, int from, int to, String ascii) {
+        if (to - from != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if ((bytes[from + i] & 0xDF) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // yyyy-MM-dd или dd.MM.yyyy, после даты через 'T' или пробел может идти время HH:mm[:ss]
+    static LocalDateTime parseDate(byte[] bytes, int from, int to) {
+        if (to - from < 10) {
+            return null;
+        }
+        int year;
+        int month;
+        int day;
+        if (bytes[from + 4] == '-' && bytes[from + 7] == '-') {
+            year = digits(bytes, from, 4);
+            month = digits(bytes, from + 5, 2);
+            day = digits(bytes, from + 8, 2);
+        } else if (bytes[from + 2] == '.' && bytes[from + 5] == '.') {
+            day = digits(bytes, from, 2);
+            month = digits(bytes, from + 3, 2);
+            year = digits(bytes, from + 6, 4);
+        } else {
+            return null;
+        }
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int pos = from + 10;
+        if (pos < to) {
+            if ((bytes[pos] != 'T' && bytes[pos] != ' ') || to - pos < 6 || bytes[pos + 3] != ':') {
+                return null;
+            }
+            hour = digits(bytes, pos + 1, 2);
+            minute = digits(bytes, pos + 4, 2);
+            if (to - pos >= 9 && bytes[pos + 6] == ':') {
+                second = digits(bytes, pos + 7, 2);
+            }
+            if (hour < 0 || minute < 0 || second < 0) {
+                return null;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static int digits(byte[] bytes, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static String text(byte[] bytes, int from, int to, boolean quoted) {
+        if (!quoted) {
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        }
+        // Удвоенные кавычки внутри поля в кавычках заменяются одинарными
+        byte[] unescaped = new byte[to - from];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            unescaped[length++] = bytes[i];
+            if (bytes[i] == '"' && i + 1 < to && bytes[i + 1] == '"') {
+                i++;
+            }
+        }
+        return new String(unescaped, 0, length, StandardCharsets.UTF_8);
+    }
+}
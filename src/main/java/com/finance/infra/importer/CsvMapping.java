@@ -0,0 +1,84 @@
+package com.finance.infra.importer;
+
+import java.util.List;
+
+// Номера колонок считаются с нуля; -1 означает, что колонки нет.
+// Без колонки типа тип определяется по знаку суммы: отрицательная сумма - расход
+public record CsvMapping(char delimiter, int dateColumn, int typeColumn, int categoryColumn,
+                         int amountColumn, int descriptionColumn) {
+
+    public CsvMapping {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r' || delimiter > 127) {
+            throw new IllegalArgumentException("Недопустимый разделитель: " + delimiter);
+        }
+        if (categoryColumn < 0 || amountColumn < 0) {
+            throw new IllegalArgumentException("Колонки категории и суммы обязательны");
+        }
+    }
+
+    // Формат CsvExporter: Date;Type;Category;Amount;Description
+    public static CsvMapping defaults() {
+        return new CsvMapping(';', 0, 1, 2, 3, 4);
+    }
+
+    // Опции вида key=value: delimiter, date, type, category, amount, description
+    public static CsvMapping fromOptions(List<String> options) {
+        CsvMapping mapping = defaults();
+        for (String option : options) {
+            int separator = option.indexOf('=');
+            if (separator <= 0 || separator == option.length() - 1) {
+                throw new IllegalArgumentException("Ожидается опция вида ключ=значение: " + option);
+            }
+            mapping = mapping.with(option.substring(0, separator).toLowerCase(), option.substring(separator + 1));
+        }
+        return mapping;
+    }
+
+    private CsvMapping with(String key, String value) {
+        return switch (key) {
+            case "delimiter" -> new CsvMapping(parseDelimiter(value), dateColumn, typeColumn, categoryColumn,
+                    amountColumn, descriptionColumn);
+            case "date" -> new CsvMapping(delimiter, parseColumn(value), typeColumn, categoryColumn,
+                    amountColumn, descriptionColumn);
+            case "type" -> new CsvMapping(delimiter, dateColumn, parseColumn(value), categoryColumn,
+                    amountColumn, descriptionColumn);
+            case "category" -> new CsvMapping(delimiter, dateColumn, typeColumn, parseColumn(value),
+                    amountColumn, descriptionColumn);
+            case "amount" -> new CsvMapping(delimiter, dateColumn, typeColumn, categoryColumn,
+                    parseColumn(value), descriptionColumn);
+            case "description" -> new CsvMapping(delimiter, dateColumn, typeColumn, categoryColumn,
+                    amountColumn, parseColumn(value));
+            default -> throw new IllegalArgumentException("Неизвестная опция импорта: " + key);
+        };
+    }
+
+    private static char parseDelimiter(String value) {
+        if (value.equalsIgnoreCase("tab")) {
+            return '\t';
+        }
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Разделитель должен быть одним символом или 'tab'");
+        }
+        return value.charAt(0);
+    }
+
+    private static int parseColumn(String value) {
+        if (value.equals("-")) {
+            return -1;
+        }
+        try {
+            int column = Integer.parseInt(value);
+            if (column < 0) {
+                throw new IllegalArgumentException("Номер колонки не может быть отрицательным: " + value);
+            }
+            return column;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный номер колонки: " + value);
+        }
+    }
+
+    int maxColumn() {
+        return Math.max(Math.max(dateColumn, typeColumn),
+                Math.max(Math.max(categoryColumn, amountColumn), descriptionColumn));
+    }
+}
@@ -0,0 +1,4 @@
+package com.finance.infra.importer;
+
+public record ImportResult(long imported, long skipped, long elapsedMillis) {
+}
@@ -0,0 +1,178 @@
+package com.finance.infra.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Потоковое чтение файла JsonExporter: транзакции передаются получателю пакетами по batchSize,
+// поэтому память не зависит от размера файла. Порядок ключей не важен, неизвестные поля пропускаются.
+// Сводные поля (balance, totalIncome, ...) не читаются: они пересчитываются кошельком
+public class JsonImporter {
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final JsonFactory factory;
+    private final int batchSize;
+
+    public JsonImporter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public JsonImporter(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.factory = new JsonFactory();
+        this.batchSize = batchSize;
+    }
+
+    public ImportResult importFile(Path file, Consumer<List<Transaction>> transactionSink,
+                                   Consumer<Budget> budgetSink) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+
+        try (JsonParser parser = factory.createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Ожидается JSON-объект кошелька");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "transactions" -> readTransactions(parser, transactionSink, progress);
+                    case "budgets" -> readBudgets(parser, budgetSink, progress);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new ImportResult(progress.imported, progress.skipped, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static final class Progress {
+        private long imported;
+        private long skipped;
+    }
+
+    private void readTransactions(JsonParser parser, Consumer<List<Transaction>> sink, Progress progress)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Transaction transaction = parser.currentToken() == JsonToken.START_OBJECT ? readTransaction(parser) : null;
+            if (transaction == null) {
+                parser.skipChildren();
+                progress.skipped++;
+                continue;
+            }
+
+            batch.add(transaction);
+            if (batch.size() == batchSize) {
+                sink.accept(batch);
+                progress.imported += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            progress.imported += batch.size();
+        }
+    }
+
+    // Возвращает null для неполной или неверной записи; парсер в любом случае стоит на конце объекта
+    private static Transaction readTransaction(JsonParser parser) throws IOException {
+        String id = null;
+        String type = null;
+        String category = null;
+        double amount = Double.NaN;
+        String date = null;
+        String description = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "category" -> category = parser.getValueAsString();
+                case "amount" -> amount = parser.getValueAsDouble(Double.NaN);
+                case "date" -> date = parser.getValueAsString();
+                case "description" -> description = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (type == null || category == null || date == null || Double.isNaN(amount)) {
+            return null;
+        }
+        try {
+            TransactionType transactionType = TransactionType.valueOf(type.toUpperCase());
+            LocalDateTime dateTime = LocalDateTime.parse(date);
+            return id != null
+                    ? new Transaction(id, category, amount, transactionType, description, dateTime)
+                    : new Transaction(category, amount, transactionType, description, dateTime);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static void readBudgets(JsonParser parser, Consumer<Budget> sink, Progress progress) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Budget budget = parser.currentToken() == JsonToken.START_OBJECT ? readBudget(parser) : null;
+            if (budget == null) {
+                parser.skipChildren();
+                progress.skipped++;
+            } else {
+                sink.accept(budget);
+            }
+        }
+    }
+
+    // Потраченная сумма не восстанавливается: кошелек считает ее по транзакциям
+    private static Budget readBudget(JsonParser parser) throws IOException {
+        String category = null;
+        double limit = Double.NaN;
+        double warningThreshold = Double.NaN;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "category" -> category = parser.getValueAsString();
+                case "limit" -> limit = parser.getValueAsDouble(Double.NaN);
+                case "warningThreshold" -> warningThreshold = parser.getValueAsDouble(Double.NaN);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (category == null || Double.isNaN(limit)) {
+            return null;
+        }
+        try {
+            return Double.isNaN(warningThreshold)
+                    ? new Budget(category, limit)
+                    : new Budget(category, limit, warningThreshold);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.finance.infra.storage;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.WalletEvent;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+// Журнал событий одного кошелька, только на добавление. Кадр: [длина][номер события][crc32][событие].
+// Оборванный при сбое хвост (неполный кадр или неверная сумма) при чтении отбрасывается
+final class EventJournal {
+    private static final int FRAME_HEADER = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final byte TRANSACTION_POSTED = 1;
+    private static final byte TRANSACTIONS_POSTED = 2;
+    private static final byte TRANSFER_POSTED = 3;
+    private static final byte BUDGET_SET = 4;
+    private static final byte BUDGET_UPDATED = 5;
+    private static final byte BUDGET_REMOVED = 6;
+    private static final byte EXPORT_WATERMARK_SET = 7;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    // skippedLength - длина кадров с номерами не больше afterSeq, с нее следующее чтение может начаться сразу
+    record Replay(long lastSeq, long validLength, long events, long skippedLength) {
+    }
+
+    private EventJournal() {
+    }
+
+    // Дописывает события с номерами firstSeq, firstSeq + 1, ... одной записью и сбрасывает на диск.
+    // validLength - длина журнала после последнего записанного кадра (отрицательная - неизвестна): хвост за ней
+    // остался от прерванной записи и отрезается, иначе при чтении он скрыл бы новые кадры. Возвращает новую длину
+    static long append(Path file, long validLength, long firstSeq, List<WalletEvent> events) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(frames);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        long seq = firstSeq;
+        for (WalletEvent event : events) {
+            payload.reset();
+            encode(event, new DataOutputStream(payload));
+            crc.reset();
+            crc.update(payload.toByteArray());
+            out.writeInt(payload.size());
+            out.writeLong(seq++);
+            out.writeInt((int) crc.getValue());
+            payload.writeTo(out);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long length = channel.size();
+            if (validLength >= 0 && length > validLength) {
+                channel.truncate(validLength);
+                length = validLength;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // Недописанный кадр не должен остаться перед кадрами следующей записи
+                channel.truncate(length);
+                throw e;
+            }
+            return length + frames.size();
+        }
+    }
+
+    // Передает события с номером больше afterSeq; чтение останавливается на первом поврежденном кадре
+    static Replay read(Path file, long afterSeq, ObjLongConsumer<WalletEvent> consumer) throws IOException {
+        return read(file, 0, afterSeq, consumer);
+    }
+
+    // Чтение с границы кадра offset, известной по прошлому чтению или записи
+    static Replay read(Path file, long offset, long afterSeq, ObjLongConsumer<WalletEvent> consumer)
+            throws IOException {
+        long lastSeq = 0;
+        long validLength = offset;
+        long skippedLength = offset;
+        long events = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.skipNBytes(offset);
+            while (true) {
+                byte[] payload;
+                long seq;
+                try {
+                    int length = in.readInt();
+                    seq = in.readLong();
+                    int checksum = in.readInt();
+                    if (length < 0) {
+                        break;
+                    }
+                    payload = in.readNBytes(length);
+                    if (payload.length < length) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                validLength += FRAME_HEADER + payload.length;
+                lastSeq = seq;
+                if (seq > afterSeq) {
+                    consumer.accept(decode(new DataInputStream(new ByteArrayInputStream(payload))), seq);
+                    events++;
+                } else {
+                    skippedLength = validLength;
+                }
+            }
+        }
+        return new Replay(lastSeq, validLength, events, skippedLength);
+    }
+
+    static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.force(false);
+        }
+    }
+
+    private static void encode(WalletEvent event, DataOutputStream out) throws IOException {
+        switch (event) {
+            case WalletEvent.TransactionPosted posted -> {
+                out.writeByte(TRANSACTION_POSTED);
+                writeTransaction(out, posted.transaction());
+            }
+            case WalletEvent.TransactionsPosted posted -> {
+                out.writeByte(TRANSACTIONS_POSTED);
+                out.writeInt(posted.transactions().size());
+                for (Transaction transaction : posted.transactions()) {
+                    writeTransaction(out, transaction);
+                }
+            }
+            case WalletEvent.TransferPosted transfer -> {
+                out.writeByte(TRANSFER_POSTED);
+                writeString(out, transfer.counterparty());
+                writeTransaction(out, transfer.transaction());
+            }
+            case WalletEvent.BudgetSet budget -> {
+                out.writeByte(BUDGET_SET);
+                writeString(out, budget.category());
+                out.writeDouble(budget.limit());
+                out.writeDouble(budget.warningThreshold());
+            }
+            case WalletEvent.BudgetUpdated budget -> {
+                out.writeByte(BUDGET_UPDATED);
+                writeString(out, budget.category());
+                out.writeDouble(budget.limit());
+            }
+            case WalletEvent.BudgetRemoved budget -> {
+                out.writeByte(BUDGET_REMOVED);
+                writeString(out, budget.category());
+            }
+            case WalletEvent.ExportWatermarkSet watermark -> {
+                out.writeByte(EXPORT_WATERMARK_SET);
+                writeString(out, watermark.target());
+                out.writeInt(watermark.ordinal());
+            }
+        }
+    }
+
+    private static WalletEvent decode(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TRANSACTION_POSTED -> new WalletEvent.TransactionPosted(readTransaction(in));
+            case TRANSACTIONS_POSTED -> {
+                int count = in.readInt();
+                List<Transaction> transactions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    transactions.add(readTransaction(in));
+                }
+                yield new WalletEvent.TransactionsPosted(transactions);
+            }
+            case TRANSFER_POSTED -> new WalletEvent.TransferPosted(readString(in), readTransaction(in));
+            case BUDGET_SET -> new WalletEvent.BudgetSet(readString(in), in.readDouble(), in.readDouble());
+            case BUDGET_UPDATED -> new WalletEvent.BudgetUpdated(readString(in), in.readDouble());
+            case BUDGET_REMOVED -> new WalletEvent.BudgetRemoved(readString(in));
+            case EXPORT_WATERMARK_SET -> new WalletEvent.ExportWatermarkSet(readString(in), in.readInt());
+            default -> throw new IOException("Неизвестный тип события: " + tag);
+        };
+    }
+
+    // Дата хранится как локальное время без зоны: секунды и наносекунды
+    private static void writeTransaction(DataOutputStream out, Transaction transaction) throws IOException {
+        writeString(out, transaction.getId());
+        writeString(out, transaction.getCategory());
+        out.writeDouble(transaction.getAmount());
+        out.writeByte(transaction.getType().ordinal());
+        writeString(out, transaction.getDescription());
+        out.writeLong(transaction.getDate().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(transaction.getDate().getNano());
+    }
+
+    private static Transaction readTransaction(DataInputStream in) throws IOException {
+        String id = readString(in);
+        String category = readString(in);
+        double amount = in.readDouble();
+        TransactionType type = TYPES[in.readByte()];
+        String description = readString(in);
+        LocalDateTime date = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new Transaction(id, category, amount, type, description, date);
+    }
+
+    // writeUTF ограничен 64 КБ, поэтому длина строки пишется целым
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,364 @@
+package com.finance.infra.storage;
+
+import com.finance.core.model.Budget;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletEvent;
+import com.finance.core.repository.UserRepository;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Хранилище на событиях: изменения кошельков дописываются в журнал каждого пользователя, а состояние
+// периодически фиксируется снимком вместе с номером последнего вошедшего в него события. При загрузке
+// кошельки восстанавливаются из снимка и событий после него, параллельно по кошелькам.
+// Журналы не обрезаются снимками и остаются историей изменений для запросов на прошлую дату
+public class EventSourcedStorage implements UserRepository, DataStorage {
+    static final String SNAPSHOT_FILE = "snapshot.ser";
+    static final String JOURNAL_DIR = "journal";
+    private static final String JOURNAL_EXTENSION = ".events";
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    private final Path directory;
+    private final int snapshotInterval;
+    private final int parallelism;
+    private final Map<String, User> users;
+    // Номер последнего события в журнале кошелька
+    private final Map<String, Long> sequences;
+    // Длина журнала кошелька по последнему записанному кадру; все, что дальше, - след прерванной записи
+    private final Map<String, Long> journalLengths;
+    // Состояние кошелька на момент последнего снимка: баланс на дату после его последней транзакции
+    // считается от него по событиям после снимка, без чтения журнала с начала
+    private final Map<String, Checkpoint> checkpoints;
+    private long eventsSinceSnapshot;
+    private boolean snapshotRequired;
+
+    private record Checkpoint(long seq, long offset, double balance, LocalDateTime latest) {
+    }
+
+    public EventSourcedStorage(String directory) {
+        this(Path.of(directory), DEFAULT_SNAPSHOT_INTERVAL, Runtime.getRuntime().availableProcessors());
+    }
+
+    public EventSourcedStorage(Path directory, int snapshotInterval, int parallelism) {
+        if (snapshotInterval < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Интервал снимков и число потоков должны быть положительными");
+        }
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.parallelism = parallelism;
+        this.users = new HashMap<>();
+        this.sequences = new HashMap<>();
+        this.journalLengths = new HashMap<>();
+        this.checkpoints = new HashMap<>();
+        loadData();
+    }
+
+    // Без снимка журналы применить не к чему: учетные записи хранятся только в снимке. Поэтому при
+    // непрочитанном снимке или ошибке восстановления хранилище не открывается, иначе следующее сохранение
+    // записало бы поверх журналов неполное состояние
+    @Override
+    @SuppressWarnings("unchecked")
+    public void loadData() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            if (hasJournals()) {
+                throw new IllegalStateException("В хранилище " + directory + " есть журналы событий, но нет снимка");
+            }
+            System.out.println("Хранилище событий не найдено, создается новое");
+            return;
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            users.putAll((Map<String, User>) ois.readObject());
+            sequences.putAll((Map<String, Long>) ois.readObject());
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Ошибка при загрузке снимка: " + e.getMessage(), e);
+        }
+
+        long started = System.nanoTime();
+        long replayed;
+        try {
+            replayed = replayJournals();
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка при восстановлении журнала: " + e.getMessage(), e);
+        }
+        users.values().forEach(user -> user.getWallet().startRecordingEvents());
+        System.out.printf("Данные загружены. Пользователей: %d, событий после снимка: %d за %d мс%n",
+                users.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Кошельки независимы, поэтому журналы читаются и применяются параллельно
+    private long replayJournals() throws IOException {
+        List<User> loaded = new ArrayList<>(users.values());
+        // До применения журналов кошельки совпадают со снимком
+        double[] balances = new double[loaded.size()];
+        LocalDateTime[] latest = new LocalDateTime[loaded.size()];
+        List<Callable<EventJournal.Replay>> tasks = new ArrayList<>(loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            User user = loaded.get(i);
+            balances[i] = user.getWallet().getBalance();
+            latest[i] = user.getWallet().getLatestTransactionDate();
+            tasks.add(() -> replay(user));
+        }
+
+        List<Future<EventJournal.Replay>> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            results = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Восстановление прервано", e);
+        }
+
+        long replayed = 0;
+        for (int i = 0; i < loaded.size(); i++) {
+            String username = loaded.get(i).getUsername();
+            EventJournal.Replay replay = await(results.get(i), username);
+            checkpoints.put(username, new Checkpoint(sequences.getOrDefault(username, 0L), replay.skippedLength(),
+                    balances[i], latest[i]));
+            sequences.merge(username, replay.lastSeq(), Math::max);
+            journalLengths.put(username, replay.validLength());
+            replayed += replay.events();
+        }
+        return replayed;
+    }
+
+    private EventJournal.Replay replay(User user) throws IOException {
+        Path journal = journal(user.getUsername());
+        if (!Files.exists(journal)) {
+            return new EventJournal.Replay(0, 0, 0, 0);
+        }
+
+        Wallet wallet = user.getWallet();
+        EventJournal.Replay replay = EventJournal.read(journal, sequences.getOrDefault(user.getUsername(), 0L),
+                (event, seq) -> wallet.apply(event));
+        // Оборванную при сбое запись отрезаем, иначе следующие кадры окажутся за ней и не прочитаются
+        if (replay.validLength() < Files.size(journal)) {
+            EventJournal.truncate(journal, replay.validLength());
+        }
+        return replay;
+    }
+
+    private static EventJournal.Replay await(Future<EventJournal.Replay> future, String username) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Восстановление прервано", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Кошелек " + username + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Сначала события дописываются в журналы, затем при необходимости пишется снимок: снимок никогда
+    // не опережает журнал, и номера в нем соответствуют состоянию кошельков. События снимаются с кошелька
+    // только после записи, поэтому при ошибке они остаются в нем и дописываются следующим сохранением
+    @Override
+    public void saveData() {
+        try {
+            Files.createDirectories(directory.resolve(JOURNAL_DIR));
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении событий: " + e.getMessage());
+            return;
+        }
+
+        long appended = 0;
+        IOException failure = null;
+        for (User user : users.values()) {
+            Wallet wallet = user.getWallet();
+            List<WalletEvent> events = wallet.pendingEvents();
+            if (events.isEmpty()) {
+                continue;
+            }
+            String username = user.getUsername();
+            long last = sequences.getOrDefault(username, 0L);
+            try {
+                journalLengths.put(username, EventJournal.append(journal(username),
+                        journalLengths.getOrDefault(username, -1L), last + 1, events));
+            } catch (IOException e) {
+                failure = e;
+                continue;
+            }
+            wallet.commitEvents(events.size());
+            sequences.put(username, last + events.size());
+            appended += events.size();
+        }
+
+        eventsSinceSnapshot += appended;
+        if (failure != null) {
+            // Снимок с состоянием, которого нет в журнале, повторил бы оставшиеся события при восстановлении
+            System.out.println("Ошибка при сохранении событий: " + failure.getMessage());
+            return;
+        }
+        if (snapshotRequired || eventsSinceSnapshot >= snapshotInterval) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        Path target = directory.resolve(SNAPSHOT_FILE).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+             ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos))) {
+            oos.writeObject(new HashMap<>(users));
+            oos.writeObject(new HashMap<>(sequences));
+            oos.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении снимка: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Снимок сохранен. Пользователей: " + users.size());
+            for (User user : users.values()) {
+                String username = user.getUsername();
+                checkpoints.put(username, new Checkpoint(sequences.getOrDefault(username, 0L),
+                        journalLengths.getOrDefault(username, 0L), user.getWallet().getBalance(),
+                        user.getWallet().getLatestTransactionDate()));
+            }
+            eventsSinceSnapshot = 0;
+            snapshotRequired = false;
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении снимка: " + e.getMessage());
+        }
+    }
+
+    // Баланс на дату по журналу на диске, без восстановления кошелька в памяти. Если дата не раньше
+    // последней транзакции снимка, журнал читается только после снимка
+    public double balanceAsOf(String username, LocalDateTime asOf) throws IOException {
+        if (!users.containsKey(username)) {
+            throw new IllegalArgumentException("Пользователь не найден");
+        }
+        Path journal = journal(username);
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        Checkpoint checkpoint = checkpoints.get(username);
+        boolean fromCheckpoint = checkpoint != null
+                && (checkpoint.latest() == null || !checkpoint.latest().isAfter(asOf));
+        double[] balance = {fromCheckpoint ? checkpoint.balance() : 0};
+        EventJournal.read(journal, fromCheckpoint ? checkpoint.offset() : 0, fromCheckpoint ? checkpoint.seq() : 0,
+                (event, seq) -> {
+                    switch (event) {
+                        case WalletEvent.TransactionPosted posted ->
+                                balance[0] += signedAmount(posted.transaction(), asOf);
+                        case WalletEvent.TransferPosted transfer ->
+                                balance[0] += signedAmount(transfer.transaction(), asOf);
+                        case WalletEvent.TransactionsPosted posted -> posted.transactions()
+                                .forEach(transaction -> balance[0] += signedAmount(transaction, asOf));
+                        default -> {
+                        }
+                    }
+                });
+        return balance[0];
+    }
+
+    private static double signedAmount(Transaction transaction, LocalDateTime asOf) {
+        if (transaction.getDate().isAfter(asOf)) {
+            return 0;
+        }
+        return transaction.getType() == TransactionType.INCOME ? transaction.getAmount() : -transaction.getAmount();
+    }
+
+    // Перенос пользователей из другого хранилища: текущее состояние кошелька становится первыми событиями журнала
+    public int importFrom(UserRepository source) throws IOException {
+        Files.createDirectories(directory.resolve(JOURNAL_DIR));
+        int imported = 0;
+        for (User user : source.findAll()) {
+            if (users.containsKey(user.getUsername())) {
+                continue;
+            }
+            // Начальные события нумеруются с 1 и не должны лечь поверх чужой истории
+            if (Files.exists(journal(user.getUsername()))) {
+                throw new IOException("Журнал пользователя " + user.getUsername() + " уже существует");
+            }
+            Wallet wallet = user.getWallet();
+            List<WalletEvent> genesis = new ArrayList<>();
+            if (wallet.getTransactionCount() > 0) {
+                genesis.add(new WalletEvent.TransactionsPosted(wallet.getTransactions()));
+            }
+            for (Budget budget : wallet.getBudgets().values()) {
+                genesis.add(new WalletEvent.BudgetSet(budget.getCategory(), budget.getLimit(),
+                        budget.getWarningThreshold()));
+            }
+            if (!genesis.isEmpty()) {
+                journalLengths.put(user.getUsername(), EventJournal.append(journal(user.getUsername()), 0, 1, genesis));
+            }
+            sequences.put(user.getUsername(), (long) genesis.size());
+            users.put(user.getUsername(), user);
+            wallet.drainEvents();
+            wallet.startRecordingEvents();
+            imported++;
+        }
+        if (imported > 0) {
+            snapshotRequired = true;
+        }
+        return imported;
+    }
+
+    private boolean hasJournals() {
+        Path journals = directory.resolve(JOURNAL_DIR);
+        if (!Files.isDirectory(journals)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(journals)) {
+            return files.anyMatch(file -> file.getFileName().toString().endsWith(JOURNAL_EXTENSION));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private Path journal(String username) {
+        return directory.resolve(JOURNAL_DIR)
+                .resolve(URLEncoder.encode(username, StandardCharsets.UTF_8) + JOURNAL_EXTENSION);
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        return users.get(username);
+    }
+
+    // Изменения кошельков фиксируются событиями, отдельная отметка не нужна
+    @Override
+    public void save() {
+    }
+
+    @Override
+    public void addUser(User user) {
+        users.put(user.getUsername(), user);
+        user.getWallet().startRecordingEvents();
+        snapshotRequired = true;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return users.values().stream();
+    }
+
+    @Override
+    public boolean exists(String username) {
+        return users.containsKey(username);
+    }
+}
@@ -4,7 +4,11 @@ import com.finance.core.model.User;
 import com.finance.core.repository.UserRepository;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class FileDataStorage implements UserRepository, DataStorage {
     private final Map<String, User> users;
@@ -35,8 +39,21 @@ public class FileDataStorage implements UserRepository, DataStorage {
     @Override
     public void saveData() {
         if (isModified) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dataFile))) {
+            // Запись во временный файл с fsync и атомарной заменой: один вызов - одна точка фиксации
+            Path target = Path.of(dataFile).toAbsolutePath();
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos))) {
                 oos.writeObject(users);
+                oos.flush();
+                fos.getFD().sync();
+            } catch (IOException e) {
+                System.out.println("Ошибка при сохранении данных: " + e.getMessage());
+                return;
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
                 System.out.println("Данные сохранены. Пользователей: " + users.size());
                 this.isModified = false;
             } catch (IOException e) {
@@ -66,6 +83,11 @@ public class FileDataStorage implements UserRepository, DataStorage {
         return new ArrayList<>(users.values());
     }
 
+    @Override
+    public Stream<User> streamAll() {
+        return users.values().stream();
+    }
+
     @Override
     public boolean exists(String username) {
         return users.containsKey(username);
@@ -0,0 +1,69 @@
+package com.finance.index;
+
+import com.finance.core.index.AmountIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountIndexTest {
+
+    private AmountIndex indexOf(double... amounts) {
+        AmountIndex index = new AmountIndex();
+        for (int i = 0; i < amounts.length; i++) {
+            index.add(amounts[i], i);
+        }
+        return index;
+    }
+
+    @Test
+    @DisplayName("Крупнейшие суммы в порядке убывания, равные - по порядку добавления")
+    void testTop() {
+        AmountIndex index = indexOf(100, 500, 300, 500, 50);
+
+        assertArrayEquals(new int[]{1, 3, 2}, index.top(3));
+        assertEquals(5, index.top(10).length);
+        assertEquals(0, index.top(0).length);
+    }
+
+    @Test
+    @DisplayName("Подсчет и выборка по диапазону сумм")
+    void testRange() {
+        AmountIndex index = new AmountIndex();
+        for (int i = 0; i < 10_000; i++) {
+            index.add((i * 37) % 1000, i);
+        }
+
+        assertEquals(10_000, index.size());
+        assertEquals(5_000, index.count(500, true, Double.POSITIVE_INFINITY, true));
+        assertEquals(4_990, index.count(500, false, Double.POSITIVE_INFINITY, true));
+        assertEquals(30, index.count(100, true, 102, true));
+        assertEquals(20, index.count(100, true, 102, false));
+
+        int[] ordinals = index.range(998, false, Double.POSITIVE_INFINITY, true);
+        assertEquals(10, ordinals.length);
+        for (int ordinal : ordinals) {
+            assertEquals(999, (ordinal * 37) % 1000);
+        }
+    }
+
+    @Test
+    @DisplayName("Индекс сериализуется и восстанавливается")
+    void testSerialization() throws IOException, ClassNotFoundException {
+        AmountIndex index = indexOf(10, 40, 20, 30);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(index);
+        }
+        AmountIndex restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (AmountIndex) in.readObject();
+        }
+
+        assertEquals(4, restored.size());
+        assertArrayEquals(new int[]{1, 3, 2, 0}, restored.top(4));
+    }
+}
@@ -0,0 +1,49 @@
+package com.finance.index;
+
+import com.finance.core.index.BloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Добавленные хеши всегда находятся")
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.add(BloomFilter.mix(i));
+        }
+
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.mix(i)));
+        }
+        assertEquals(10_000, filter.size());
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    @DisplayName("Доля ложных срабатываний близка к заданной")
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.add(BloomFilter.mix(i));
+        }
+
+        int falsePositives = 0;
+        for (long i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(BloomFilter.mix(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Неверные параметры фильтра")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
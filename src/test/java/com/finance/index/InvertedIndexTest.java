@@ -0,0 +1,74 @@
+package com.finance.index;
+
+import com.finance.core.index.InvertedIndex;
+import com.finance.core.index.PostingList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    @DisplayName("Список позиций сжимается и восстанавливается")
+    void testPostingListRoundTrip() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 3);
+        }
+        list.add(2997);
+
+        int[] ordinals = list.toArray();
+
+        assertEquals(1000, list.size());
+        assertEquals(1000, list.sizeInBytes());
+        assertEquals(0, ordinals[0]);
+        assertEquals(2997, ordinals[999]);
+        assertThrows(IllegalArgumentException.class, () -> list.add(5));
+    }
+
+    @Test
+    @DisplayName("Пересечение списков позиций")
+    void testIntersect() {
+        PostingList even = new PostingList();
+        PostingList thirds = new PostingList();
+        PostingList sparse = new PostingList();
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 2 == 0) {
+                even.add(i);
+            }
+            if (i % 3 == 0) {
+                thirds.add(i);
+            }
+        }
+        sparse.add(6);
+        sparse.add(7);
+        sparse.add(99_996);
+
+        assertArrayEquals(new int[]{6, 99_996}, PostingList.intersect(even, thirds, sparse));
+        assertEquals(16_667, PostingList.intersect(even, thirds).length);
+    }
+
+    @Test
+    @DisplayName("Конъюнктивный поиск по описанию и категории")
+    void testSearch() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, "Такси до аэропорта", "Транспорт");
+        index.add(1, "Кофе в аэропорту", "Еда");
+        index.add(2, "Такси домой", "Транспорт");
+
+        assertArrayEquals(new int[]{0, 2}, index.search("такси"));
+        assertArrayEquals(new int[]{0}, index.search("ТАКСИ аэропорта"));
+        assertArrayEquals(new int[]{1}, index.search("еда"));
+        assertArrayEquals(new int[0], index.search("такси еда"));
+        assertArrayEquals(new int[0], index.search("   "));
+    }
+
+    @Test
+    @DisplayName("Токенизация по буквам и цифрам")
+    void testTokenize() {
+        assertEquals(List.of("оплата", "заказа", "42"), InvertedIndex.tokenize("Оплата заказа #42, заказа"));
+    }
+}
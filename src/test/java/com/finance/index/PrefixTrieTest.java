@@ -0,0 +1,51 @@
+package com.finance.index;
+
+import com.finance.core.index.PrefixTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new PrefixTrie();
+        for (String word : List.of("Еда", "Еда вне дома", "Развлечения", "Ремонт", "Такси", "Транспорт")) {
+            trie.add(word);
+        }
+    }
+
+    @Test
+    @DisplayName("Дополнение по префиксу без учета регистра")
+    void testComplete() {
+        assertEquals(List.of("Еда", "Еда вне дома"), trie.complete("ед", 10));
+        assertEquals(List.of("Такси", "Транспорт"), trie.complete("Т", 10));
+        assertEquals(List.of("Такси"), trie.complete("т", 1));
+        assertTrue(trie.complete("Кино", 10).isEmpty());
+        assertEquals(6, trie.complete("", 10).size());
+    }
+
+    @Test
+    @DisplayName("Повторное добавление не увеличивает размер")
+    void testDuplicates() {
+        trie.add("ЕДА");
+
+        assertEquals(6, trie.size());
+        assertTrue(trie.contains("еда"));
+        assertEquals(List.of("ЕДА", "Еда вне дома"), trie.complete("ед", 10));
+    }
+
+    @Test
+    @DisplayName("Подсказки по ограниченному расстоянию редактирования")
+    void testSuggest() {
+        assertEquals(List.of("Такси"), trie.suggest("Таксм", 1, 5));
+        assertEquals(List.of("Транспорт"), trie.suggest("Трнаспорт", 2, 5));
+        assertEquals(List.of("Еда"), trie.suggest("Еад", 2, 5));
+        assertTrue(trie.suggest("Автомобиль", 2, 5).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.finance.index;
+
+import com.finance.core.index.RoaringBitmap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringBitmapTest {
+
+    @Test
+    @DisplayName("Добавление и проверка значений в разных контейнерах")
+    void testAddAndContains() {
+        RoaringBitmap bitmap = RoaringBitmap.of(5, 3, 70_000, 5, 1 << 20);
+
+        assertEquals(4, bitmap.cardinality());
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(4));
+        assertFalse(bitmap.contains(-1));
+        assertArrayEquals(new int[]{3, 5, 70_000, 1 << 20}, bitmap.stream().toArray());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-5));
+    }
+
+    @Test
+    @DisplayName("Плотный контейнер переходит в битовое представление")
+    void testDenseContainer() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 200_000; i++) {
+            bitmap.add(i);
+        }
+
+        assertEquals(200_000, bitmap.cardinality());
+        assertTrue(bitmap.contains(199_999));
+        assertEquals(199_999L * 200_000 / 2, bitmap.stream().asLongStream().sum());
+    }
+
+    @Test
+    @DisplayName("Объединение и пересечение")
+    void testOrAnd() {
+        RoaringBitmap even = new RoaringBitmap();
+        RoaringBitmap thirds = new RoaringBitmap();
+        for (int i = 0; i < 150_000; i++) {
+            if (i % 2 == 0) {
+                even.add(i);
+            }
+            if (i % 3 == 0) {
+                thirds.add(i);
+            }
+        }
+        RoaringBitmap sparse = RoaringBitmap.of(1, 6, 149_999);
+
+        RoaringBitmap union = RoaringBitmap.or(List.of(even, thirds, sparse));
+        RoaringBitmap intersection = RoaringBitmap.and(even, thirds);
+
+        assertEquals(100_002, union.cardinality());
+        assertEquals(25_000, intersection.cardinality());
+        assertTrue(intersection.contains(6));
+        assertFalse(intersection.contains(4));
+        assertArrayEquals(new int[]{6}, RoaringBitmap.and(intersection, sparse).stream().toArray());
+        assertTrue(RoaringBitmap.or(List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Объединение многих множеств совпадает с попарным")
+    void testOrMany() {
+        List<RoaringBitmap> categories = new ArrayList<>();
+        for (int c = 0; c < 500; c++) {
+            categories.add(new RoaringBitmap());
+        }
+        for (int i = 0; i < 200_000; i++) {
+            categories.get(i % 500).add(i);
+        }
+        List<RoaringBitmap> sample = new ArrayList<>();
+        RoaringBitmap expected = new RoaringBitmap();
+        for (int c = 0; c < 500; c += 3) {
+            sample.add(categories.get(c));
+            expected = RoaringBitmap.or(expected, categories.get(c));
+        }
+
+        RoaringBitmap union = RoaringBitmap.or(sample);
+        assertEquals(expected.cardinality(), union.cardinality());
+        assertArrayEquals(expected.stream().toArray(), union.stream().toArray());
+        assertEquals(200_000, RoaringBitmap.or(categories).cardinality());
+        assertEquals(400, RoaringBitmap.or(List.of(categories.get(7))).cardinality());
+    }
+}
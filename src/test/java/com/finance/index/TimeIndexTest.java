@@ -0,0 +1,81 @@
+package com.finance.index;
+
+import com.finance.core.index.TimeIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIndexTest {
+    private static final LocalDateTime START = LocalDate.of(2026, 1, 1).atStartOfDay();
+
+    @Test
+    @DisplayName("Упорядоченные вставки дают отрезок номеров")
+    void testOrderedRange() {
+        TimeIndex index = new TimeIndex();
+        for (int day = 0; day < 100; day++) {
+            index.add(day, START.plusDays(day));
+        }
+
+        assertTrue(index.isOrdered());
+        assertEquals(10, index.countInRange(START.plusDays(10), START.plusDays(20)));
+        assertArrayEquals(new int[]{98, 99}, index.ordinalsInRange(START.plusDays(98), null).toArray());
+        assertEquals(0, index.countInRange(START.plusDays(200), null));
+    }
+
+    @Test
+    @DisplayName("Вставки не по порядку поддерживаются")
+    void testUnorderedRange() {
+        TimeIndex index = new TimeIndex();
+        index.add(0, START.plusDays(5));
+        index.add(1, START.plusDays(1));
+        index.add(2, START.plusDays(3));
+        index.add(3, START.plusDays(2));
+
+        assertFalse(index.isOrdered());
+        assertEquals(2, index.countInRange(START.plusDays(2), START.plusDays(4)));
+        assertArrayEquals(new int[]{2, 3}, index.ordinalsInRange(START.plusDays(2), START.plusDays(4)).toArray());
+        assertThrows(IllegalArgumentException.class, () -> index.add(7, START));
+    }
+
+    @Test
+    @DisplayName("Даты за пределами диапазона наносекунд сравниваются верно")
+    void testFarDates() {
+        TimeIndex index = new TimeIndex();
+        index.add(0, LocalDate.of(1500, 6, 1).atStartOfDay());
+        index.add(1, START);
+        index.add(2, LocalDate.of(2999, 12, 31).atStartOfDay());
+        index.add(3, LocalDate.of(3100, 1, 1).atStartOfDay());
+
+        assertTrue(index.isOrdered());
+        assertEquals(3, index.countInRange(null, LocalDate.of(3000, 1, 1).atStartOfDay()));
+        assertArrayEquals(new int[]{0, 1}, index.ordinalsInRange(LocalDate.of(1000, 1, 1).atStartOfDay(),
+                LocalDate.of(2500, 1, 1).atStartOfDay()).toArray());
+        assertArrayEquals(new int[]{3}, index.ordinalsInRange(LocalDate.of(3000, 1, 1).atStartOfDay(), null)
+                .toArray());
+    }
+
+    @Test
+    @DisplayName("Порядок по времени дополняется новыми вставками между запросами")
+    void testSortedOrderExtendedAfterAdds() {
+        TimeIndex index = new TimeIndex();
+        int ordinal = 0;
+        for (int day = 50; day > 0; day--) {
+            index.add(ordinal++, START.plusDays(day));
+        }
+        assertEquals(10, index.countInRange(START.plusDays(1), START.plusDays(11)));
+
+        for (int day = 0; day < 100; day += 2) {
+            index.add(ordinal++, START.plusDays(day).plusNanos(1));
+        }
+        // Дни 1..10 из первой вставки и 2, 4, ..., 10 (со сдвигом на наносекунду) из второй
+        assertEquals(15, index.countInRange(START.plusDays(1), START.plusDays(11)));
+        assertArrayEquals(new int[]{48, 49}, index.ordinalsInRange(START.plusDays(1), START.plusDays(2).plusNanos(1))
+                .toArray());
+        assertArrayEquals(new int[]{48, 51}, index.ordinalsInRange(START.plusDays(2), START.plusDays(2).plusNanos(2))
+                .toArray());
+    }
+}
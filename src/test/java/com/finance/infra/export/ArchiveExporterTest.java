@@ -0,0 +1,135 @@
+package com.finance.infra.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.core.model.User;
+import com.finance.core.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ArchiveExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UserRepository userRepository;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            User user = new User("user " + i, "password");
+            user.getWallet().addTransactions(CsvExporterTest.createWallet(i * 40).getTransactions());
+            user.getWallet().setBudget("Категория 1", 100 + i);
+            users.add(user);
+        }
+        userRepository = mock(UserRepository.class);
+        when(userRepository.streamAll()).thenAnswer(invocation -> users.stream());
+    }
+
+    private static String sha256(byte[] data) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private void assertManifest(JsonNode manifest, Map<String, byte[]> files) throws NoSuchAlgorithmException {
+        assertEquals(users.size(), manifest.get("users").asInt());
+        assertEquals(users.stream().mapToLong(u -> u.getWallet().getTransactionCount()).sum(),
+                manifest.get("transactions").asLong());
+
+        JsonNode partitions = manifest.get("partitions");
+        assertEquals(users.size(), partitions.size());
+        for (int i = 0; i < users.size(); i++) {
+            JsonNode partition = partitions.get(i);
+            byte[] data = files.get(partition.get("file").asText());
+            assertEquals(users.get(i).getUsername(), partition.get("username").asText());
+            assertEquals(users.get(i).getWallet().getTransactionCount(), partition.get("transactions").asInt());
+            assertEquals(1, partition.get("budgets").asInt());
+            assertEquals(data.length, partition.get("bytes").asLong());
+            assertEquals(sha256(data), partition.get("sha256").asText());
+        }
+    }
+
+    @Test
+    @DisplayName("ZIP-архив: разделы по пользователям в порядке хранилища и манифест с контрольными суммами")
+    void testZipArchive() throws Exception {
+        Path archive = tempDir.resolve("backup.zip");
+
+        List<ArchivePartition> partitions = new ArchiveExporter(userRepository, 3).exportAll(archive);
+
+        Map<String, byte[]> files = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                files.put(entry.getName(), in.readAllBytes());
+                order.add(entry.getName());
+            }
+        }
+
+        assertEquals(ArchiveExporter.MANIFEST, order.getLast());
+        assertEquals(partitions.stream().map(ArchivePartition::file).toList(), order.subList(0, users.size()));
+        assertManifest(new ObjectMapper().readTree(files.get(ArchiveExporter.MANIFEST)), files);
+        // Временные файлы разделов удалены вместе с каталогом
+        try (Stream<Path> left = Files.list(tempDir)) {
+            assertEquals(List.of(archive), left.toList());
+        }
+
+        Path single = tempDir.resolve("single.json");
+        new JsonExporter().exportWallet(users.get(7).getWallet(), single.toString());
+        assertArrayEquals(Files.readAllBytes(single), files.get(partitions.get(7).file()));
+    }
+
+    @Test
+    @DisplayName("Выгрузка в каталог дает те же разделы и манифест")
+    void testDirectoryArchive() throws Exception {
+        Path directory = tempDir.resolve("backup");
+
+        List<ArchivePartition> partitions = new ArchiveExporter(userRepository).exportAll(directory);
+
+        Map<String, byte[]> files = new HashMap<>();
+        for (ArchivePartition partition : partitions) {
+            files.put(partition.file(), Files.readAllBytes(directory.resolve(partition.file())));
+        }
+        try (InputStream manifest = Files.newInputStream(directory.resolve(ArchiveExporter.MANIFEST))) {
+            assertManifest(new ObjectMapper().readTree(manifest), files);
+        }
+        assertTrue(Files.exists(directory.resolve("users/user+0.json")));
+    }
+
+    @Test
+    @DisplayName("Ошибка в кошельке прерывает экспорт и не оставляет архив")
+    void testFailureLeavesNoArchive() throws IOException {
+        User broken = mock(User.class);
+        when(broken.getUsername()).thenReturn("broken");
+        when(broken.getWallet()).thenThrow(new IllegalStateException("wallet unavailable"));
+        users.add(5, broken);
+        Path archive = tempDir.resolve("broken.zip");
+
+        assertThrows(IllegalStateException.class, () -> new ArchiveExporter(userRepository, 2).exportAll(archive));
+        assertFalse(Files.exists(archive));
+        try (Stream<Path> left = Files.list(tempDir)) {
+            assertEquals(0, left.count());
+        }
+    }
+}
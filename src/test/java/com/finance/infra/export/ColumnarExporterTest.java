@@ -0,0 +1,97 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<ColumnChunk> readAll(Path file, LocalDateTime from, LocalDateTime to,
+                                             List<ColumnarReader.ScanResult> results) throws IOException {
+        List<ColumnChunk> chunks = new ArrayList<>();
+        try (ColumnarReader reader = new ColumnarReader(file)) {
+            results.add(reader.read(from, to, chunks::add));
+        }
+        return chunks;
+    }
+
+    @Test
+    @DisplayName("Колоночный файл читается обратно без потерь, со сжатием и без")
+    void testRoundTrip() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(10_000);
+        wallet.addTransaction(new Transaction("Кафе", 12.34, TransactionType.EXPENSE, "Обед",
+                LocalDateTime.of(1960, 5, 1, 12, 30, 15, 123_456_000)));
+        List<Transaction> expected = wallet.getTransactions();
+
+        for (Compression compression : List.of(Compression.NONE, Compression.DEFLATE)) {
+            Path file = tempDir.resolve("wallet-" + compression + ".fcol");
+            new ColumnarExporter(3, 777, compression).export(wallet, file.toString());
+
+            List<ColumnarReader.ScanResult> results = new ArrayList<>();
+            int row = 0;
+            for (ColumnChunk chunk : readAll(file, null, null, results)) {
+                for (int i = 0; i < chunk.size(); i++, row++) {
+                    Transaction transaction = expected.get(row);
+                    assertEquals(transaction.getDate(), chunk.getDate(i));
+                    assertEquals(transaction.getCategory(), chunk.getCategory(i));
+                    assertEquals(transaction.getType(), chunk.getType(i));
+                    assertEquals(transaction.getAmount(), chunk.getAmount(i));
+                }
+            }
+            assertEquals(expected.size(), row);
+            assertEquals(new ColumnarReader.ScanResult(13, 0, expected.size()), results.getFirst());
+        }
+    }
+
+    @Test
+    @DisplayName("Блоки вне диапазона дат пропускаются по статистике")
+    void testSkipsChunksByDateRange() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(1_000);
+        Path file = tempDir.resolve("range.fcol");
+        new ColumnarExporter(2, 100, Compression.DEFLATE).export(wallet, file.toString());
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<ColumnarReader.ScanResult> results = new ArrayList<>();
+        List<ColumnChunk> chunks = readAll(file, start.plusHours(250), start.plusHours(420), results);
+
+        assertEquals(new ColumnarReader.ScanResult(3, 7, 170), results.getFirst());
+        assertEquals(start.plusHours(250), chunks.getFirst().getDate(0));
+        ColumnChunk last = chunks.getLast();
+        assertEquals(start.plusHours(419), last.getDate(last.size() - 1));
+
+        double expenses = wallet.getTransactions(250, 420).stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE).mapToDouble(Transaction::getAmount).sum();
+        assertEquals(expenses, chunks.stream().mapToDouble(c -> c.sumAmounts(TransactionType.EXPENSE)).sum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Пустой кошелек, чужой файл и неподдерживаемое сжатие")
+    void testEdgeCases() throws IOException {
+        Path empty = tempDir.resolve("empty.fcol");
+        new ColumnarExporter().export(new Wallet("empty"), empty.toString());
+        List<ColumnarReader.ScanResult> results = new ArrayList<>();
+        assertTrue(readAll(empty, null, null, results).isEmpty());
+        assertEquals(new ColumnarReader.ScanResult(0, 0, 0), results.getFirst());
+
+        Path foreign = tempDir.resolve("foreign.fcol");
+        Files.writeString(foreign, "Date;Type;Category");
+        assertThrows(IOException.class, () -> new ColumnarReader(foreign));
+
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarExporter(Compression.GZIP));
+    }
+}
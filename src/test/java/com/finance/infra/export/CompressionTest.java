@@ -0,0 +1,102 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Сжатый CSV после распаковки совпадает с обычным")
+    void testGzipCsvRoundTrip() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(20_000);
+        Path plain = tempDir.resolve("plain.csv");
+        Path compressed = tempDir.resolve("plain.csv.gz");
+
+        new CsvExporter(1, Integer.MAX_VALUE).export(wallet, plain.toString());
+        new CsvExporter(4, 1000, Compression.GZIP).export(wallet, compressed.toString());
+
+        assertArrayEquals(Files.readAllBytes(plain), gunzip(compressed));
+        assertTrue(Files.size(compressed) < Files.size(plain));
+    }
+
+    @Test
+    @DisplayName("JSON и JSON Lines со сжатием deflate")
+    void testDeflateJsonRoundTrip() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(5_000);
+        Path plainJson = tempDir.resolve("wallet.json");
+        Path deflatedJson = tempDir.resolve("wallet.json.deflate");
+        Path plainLines = tempDir.resolve("wallet.jsonl");
+        Path deflatedLines = tempDir.resolve("wallet.jsonl.deflate");
+
+        new JsonExporter().export(wallet, plainJson.toString());
+        new JsonExporter(Compression.DEFLATE).export(wallet, deflatedJson.toString());
+        new JsonLinesExporter(2, 300).export(wallet, plainLines.toString());
+        new JsonLinesExporter(2, 300, Compression.DEFLATE).export(wallet, deflatedLines.toString());
+
+        try (InputStream json = new InflaterInputStream(Files.newInputStream(deflatedJson));
+             InputStream lines = new InflaterInputStream(Files.newInputStream(deflatedLines))) {
+            assertArrayEquals(Files.readAllBytes(plainJson), json.readAllBytes());
+            assertArrayEquals(Files.readAllBytes(plainLines), lines.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Инкрементальный gzip-экспорт дописывает новые члены архива")
+    void testIncrementalGzip() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(100);
+        Path incremental = tempDir.resolve("incremental.csv.gz");
+        Path full = tempDir.resolve("full.csv");
+        CsvExporter exporter = new CsvExporter(2, 16, Compression.GZIP);
+
+        assertEquals(100, exporter.exportIncremental(wallet, incremental.toString()).exported());
+        wallet.addTransactions(CsvExporterTest.createWallet(30).getTransactions());
+        assertEquals(30, exporter.exportIncremental(wallet, incremental.toString()).exported());
+        new CsvExporter(2, 16).exportTransactions(wallet, full.toString());
+
+        assertArrayEquals(Files.readAllBytes(full), gunzip(incremental));
+        assertThrows(IllegalArgumentException.class, () -> new CsvExporter(Compression.DEFLATE)
+                .exportIncremental(wallet, tempDir.resolve("x.csv.deflate").toString()));
+    }
+
+    @Test
+    @DisplayName("Канал сжатия передает данные длиннее нескольких блоков без потерь")
+    void testChannelAcrossBlocks() throws IOException {
+        byte[] data = new byte[CompressingChannel.BLOCK_SIZE * 5 + 123];
+        new Random(42).nextBytes(data);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        try (CompressingChannel channel = new CompressingChannel(target, Compression.GZIP)) {
+            for (int offset = 0; offset < data.length; offset += 10_000) {
+                channel.write(ByteBuffer.wrap(data, offset, Math.min(10_000, data.length - offset)));
+            }
+        }
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(target.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Сравнение CsvExporter с прежней записью через String.format и FileWriter.
+// Запуск: java -cp target/classes:target/test-classes com.finance.infra.export.CsvExportBenchmark [rows]
+public class CsvExportBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Wallet wallet = createWallet(rows);
+        Path file = Files.createTempFile("csv-benchmark", ".csv");
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                long legacy = measure(() -> exportLegacy(wallet, file));
+                long current = measure(() -> new CsvExporter().exportTransactions(wallet, file.toString()));
+                System.out.printf("Раунд %d: String.format %,d строк/с, CsvWriter %,d строк/с%n",
+                        round, rows * 1_000_000_000L / legacy, rows * 1_000_000_000L / current);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Export {
+        void run() throws IOException;
+    }
+
+    private static long measure(Export export) throws IOException {
+        long started = System.nanoTime();
+        export.run();
+        return Math.max(1, System.nanoTime() - started);
+    }
+
+    private static Wallet createWallet(int rows) {
+        List<Transaction> transactions = new ArrayList<>(rows);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(new Transaction("Категория " + i % 50, 1 + i % 99_999 / 100.0,
+                    i % 5 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    i % 10 == 0 ? "Покупка; магазин " + i : "Покупка " + i, date.plusMinutes(i)));
+        }
+        Wallet wallet = new Wallet("benchmark");
+        wallet.addTransactions(transactions);
+        return wallet;
+    }
+
+    // Прежняя реализация writeTransactions
+    private static void exportLegacy(Wallet wallet, Path file) throws IOException {
+        try (FileWriter writer = new FileWriter(file.toFile())) {
+            for (Transaction transaction : wallet.getTransactions()) {
+                writer.write(String.format("%s%s%s%s%s%s%.2f%s%s%s",
+                        transaction.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE), ";",
+                        transaction.getType(), ";",
+                        escape(transaction.getCategory()), ";",
+                        transaction.getAmount(), ";",
+                        escape(transaction.getDescription()), System.lineSeparator()));
+            }
+        }
+    }
+
+    private static String escape(String field) {
+        if (field.contains(";") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+}
@@ -0,0 +1,117 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    static Wallet createWallet(int rows) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            transactions.add(new Transaction("Категория " + i % 7, 1 + i % 1000 / 100.0,
+                    i % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    i % 11 == 0 ? "Покупка; \"магазин\" " + i : "Покупка " + i,
+                    LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(i)));
+        }
+        Wallet wallet = new Wallet("testuser");
+        wallet.addTransactions(transactions);
+        return wallet;
+    }
+
+    @Test
+    @DisplayName("Параллельный экспорт совпадает с последовательным байт в байт")
+    void testParallelMatchesSequential() throws IOException {
+        Wallet wallet = createWallet(10_000);
+        Path sequential = tempDir.resolve("sequential.csv");
+        Path parallel = tempDir.resolve("parallel.csv");
+
+        new CsvExporter(1, Integer.MAX_VALUE).export(wallet, sequential.toString());
+        new CsvExporter(4, 97).export(wallet, parallel.toString());
+
+        assertEquals(-1, Files.mismatch(sequential, parallel));
+        assertEquals(10_000 + 10, Files.readAllLines(sequential).size());
+    }
+
+    @Test
+    @DisplayName("Экспорт пустого кошелька")
+    void testEmptyWallet() throws IOException {
+        Path file = tempDir.resolve("empty.csv");
+
+        new CsvExporter(4, 16).exportTransactions(new Wallet("empty"), file.toString());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("Financial Data Export", lines.getFirst());
+        assertEquals("Date;Type;Category;Amount;Description", lines.getLast());
+    }
+
+    @Test
+    @DisplayName("Инкрементальный экспорт дописывает только новые транзакции")
+    void testIncrementalExport() throws IOException {
+        Wallet wallet = createWallet(100);
+        Path incremental = tempDir.resolve("incremental.csv");
+        Path full = tempDir.resolve("full.csv");
+        CsvExporter exporter = new CsvExporter(2, 16);
+
+        assertEquals(100, exporter.exportIncremental(wallet, incremental.toString()).exported());
+        assertEquals(0, exporter.exportIncremental(wallet, incremental.toString()).exported());
+        wallet.addTransactions(createWallet(50).getTransactions());
+        assertEquals(50, exporter.exportIncremental(wallet, incremental.toString()).exported());
+        exporter.exportTransactions(wallet, full.toString());
+
+        assertEquals(-1, Files.mismatch(full, incremental));
+    }
+
+    @Test
+    @DisplayName("Удаленный файл инкрементального экспорта создается заново")
+    void testIncrementalExportRecreatesMissingFile() throws IOException {
+        Wallet wallet = createWallet(10);
+        Path file = tempDir.resolve("incremental.csv");
+        CsvExporter exporter = new CsvExporter();
+
+        exporter.exportIncremental(wallet, file.toString());
+        Files.delete(file);
+        wallet.addTransactions(createWallet(5).getTransactions());
+
+        assertEquals(15, exporter.exportIncremental(wallet, file.toString()).exported());
+        assertEquals(15 + 5, Files.readAllLines(file).size());
+    }
+
+    @Test
+    @DisplayName("Полный экспорт в тот же файл переносит отметку инкрементального экспорта")
+    void testFullExportMovesWatermark() throws IOException {
+        Wallet wallet = createWallet(20);
+        Path file = tempDir.resolve("mixed.csv");
+        Path expected = tempDir.resolve("expected.csv");
+        CsvExporter exporter = new CsvExporter();
+
+        exporter.exportIncremental(wallet, file.toString());
+        wallet.addTransactions(createWallet(5).getTransactions());
+        exporter.markFullExport(wallet, file.toString(), wallet.getTransactionCount());
+        exporter.exportTransactions(wallet, file.toString());
+        wallet.addTransactions(createWallet(3).getTransactions());
+        assertEquals(3, exporter.exportIncremental(wallet, file.toString()).exported());
+        exporter.exportTransactions(wallet, expected.toString());
+        assertEquals(-1, Files.mismatch(expected, file));
+
+        exporter.markFullExport(wallet, file.toString(), 0);
+        exporter.exportBudgets(wallet, file.toString());
+        assertEquals(28, exporter.exportIncremental(wallet, file.toString()).exported());
+        assertEquals(-1, Files.mismatch(expected, file));
+    }
+}
@@ -0,0 +1,81 @@
+package com.finance.infra.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvWriterTest {
+
+    private static String write(CsvWriterAction action, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(Channels.newChannel(out), ';', '.', "\n", bufferSize)) {
+            action.write(writer);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface CsvWriterAction {
+        void write(CsvWriter writer) throws IOException;
+    }
+
+    @Test
+    @DisplayName("Суммы форматируются так же, как String.format(\"%.2f\")")
+    void testFixedPointMatchesFormat() throws IOException {
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = switch (i % 4) {
+                case 0 -> random.nextInt(1_000_000) / 1000.0;
+                case 1 -> random.nextDouble() * 1e7;
+                case 2 -> -random.nextInt(100_000) / 200.0;
+                default -> random.nextInt(100_000) / 100.0 + 0.005;
+            };
+        }
+        double[] edges = {0.0, -0.0, 0.005, 1.005, 2.675, 0.125, -0.001, 999_999_999.995, 1e12 + 0.5, 1e20,
+                Double.NaN, Double.POSITIVE_INFINITY};
+
+        String actual = write(writer -> {
+            for (double value : values) {
+                writer.field(value).endRow();
+            }
+            for (double value : edges) {
+                writer.field(value).endRow();
+            }
+        }, 64);
+
+        StringBuilder expected = new StringBuilder();
+        for (double value : values) {
+            expected.append(String.format(Locale.ROOT, "%.2f", value)).append('\n');
+        }
+        for (double value : edges) {
+            expected.append(String.format(Locale.ROOT, "%.2f", value)).append('\n');
+        }
+        assertEquals(expected.toString(), actual);
+    }
+
+    @Test
+    @DisplayName("Экранирование полей и кодирование UTF-8")
+    void testEscapingAndEncoding() throws IOException {
+        String actual = write(writer -> writer
+                .field(LocalDate.of(2024, 3, 5))
+                .rawField("EXPENSE")
+                .field("Еда; кафе")
+                .field("Обед \"у дома\"")
+                .field("строка\nвторая")
+                .field("")
+                .field("эмодзи 😀")
+                .endRow(), 64);
+
+        assertEquals("2024-03-05;EXPENSE;\"Еда; кафе\";\"Обед \"\"у дома\"\"\";\"строка\nвторая\";;эмодзи 😀\n",
+                actual);
+    }
+}
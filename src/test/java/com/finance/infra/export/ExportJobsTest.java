@@ -0,0 +1,146 @@
+package com.finance.infra.export;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJobsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ExportJobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        jobs = new ExportJobs();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.close();
+    }
+
+    // Прерывание (отмена задания) не выбрасывается, а остается флагом потока
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Фоновый экспорт выгружает снимок и сообщает прогресс")
+    void testJobExportsSnapshot() throws Exception {
+        Wallet wallet = CsvExporterTest.createWallet(5_000);
+        Path expected = tempDir.resolve("expected.csv");
+        Path file = tempDir.resolve("job.csv");
+        CsvExporter exporter = new CsvExporter(2, 300);
+        exporter.exportTransactions(wallet, expected.toString());
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        ExportJob job = jobs.submit("export", file.toString(), wallet.snapshot(), snapshot -> {
+            started.countDown();
+            awaitQuietly(resume);
+            exporter.exportTransactions(snapshot, file.toString());
+        });
+        started.await();
+        wallet.addTransaction(new Transaction("Еда", 100, TransactionType.EXPENSE, "После постановки"));
+        resume.countDown();
+        jobs.await(job);
+
+        assertEquals(ExportJob.State.COMPLETED, job.getState());
+        assertEquals(5_000, job.getTotalRows());
+        assertEquals(5_000, job.getRows());
+        assertEquals(Files.size(file), job.getBytes());
+        assertEquals(-1, Files.mismatch(expected, file));
+        assertEquals(job, jobs.get(job.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Отмена прерывает экспорт и удаляет недописанный файл")
+    void testCancel() throws Exception {
+        Wallet wallet = CsvExporterTest.createWallet(1_000);
+        Path file = tempDir.resolve("cancelled.jsonl");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+
+        ExportJob job = jobs.submit("export-json", file.toString(), wallet.snapshot(), snapshot -> {
+            Files.writeString(file, "partial");
+            started.countDown();
+            awaitQuietly(resume);
+            new JsonLinesExporter(1, 100).export(snapshot, file.toString());
+        });
+        started.await();
+
+        assertTrue(job.cancel());
+        resume.countDown();
+        jobs.await(job);
+
+        assertEquals(ExportJob.State.CANCELLED, job.getState());
+        assertFalse(job.cancel());
+        assertFalse(Files.exists(file));
+        assertEquals(0, jobs.countRunning());
+    }
+
+    @Test
+    @DisplayName("Ошибка экспорта сохраняется в задании")
+    void testFailure() {
+        Wallet wallet = CsvExporterTest.createWallet(10);
+        Path file = tempDir.resolve("missing").resolve("out.csv");
+
+        ExportJob job = jobs.submit("export", file.toString(), wallet.snapshot(),
+                snapshot -> new CsvExporter().exportTransactions(snapshot, file.toString()));
+        jobs.await(job);
+
+        assertEquals(ExportJob.State.FAILED, job.getState());
+        assertNotNull(job.getError());
+        assertThrows(IOException.class, () -> Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Действие после экспорта выполняется в runCompletions и только при успехе")
+    void testCompletionRunsOnlyAfterSuccess() throws Exception {
+        Wallet wallet = CsvExporterTest.createWallet(10);
+        Path file = tempDir.resolve("done.csv");
+        AtomicInteger completed = new AtomicInteger();
+
+        String missing = tempDir.resolve("missing").resolve("out.csv").toString();
+        ExportJob failed = jobs.submit("export", missing, wallet.snapshot(),
+                snapshot -> new CsvExporter().exportTransactions(snapshot, missing), completed::incrementAndGet);
+        jobs.await(failed);
+        assertEquals(0, jobs.runCompletions());
+
+        CountDownLatch resume = new CountDownLatch(1);
+        ExportJob job = jobs.submit("export", file.toString(), wallet.snapshot(), snapshot -> {
+            awaitQuietly(resume);
+            new CsvExporter().exportTransactions(snapshot, file.toString());
+        }, completed::incrementAndGet);
+        assertTrue(jobs.isWriting(file.toString()));
+        assertFalse(jobs.isWriting(tempDir.resolve("other.csv").toString()));
+        assertEquals(0, completed.get());
+
+        resume.countDown();
+        jobs.await(job);
+        assertFalse(jobs.isWriting(file.toString()));
+        assertEquals(0, completed.get());
+        assertEquals(1, jobs.runCompletions());
+        assertEquals(1, completed.get());
+        assertEquals(0, jobs.runCompletions());
+    }
+}
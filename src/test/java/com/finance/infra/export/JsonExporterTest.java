@@ -0,0 +1,82 @@
+package com.finance.infra.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Дата форматируется так же, как ISO_LOCAL_DATE_TIME")
+    void testFormatDateMatchesIso() {
+        char[] buffer = new char[32];
+        for (LocalDateTime date : List.of(
+                LocalDateTime.of(2024, 1, 5, 0, 0),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 7),
+                LocalDateTime.of(2024, 3, 15, 8, 30, 0, 120_000_000),
+                LocalDateTime.of(2024, 3, 15, 8, 30, 1, 1),
+                LocalDateTime.of(12024, 3, 15, 8, 30))) {
+            int length = JsonExporter.formatDate(date, buffer);
+            assertEquals(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    @DisplayName("Экспорт содержит все транзакции и сводку")
+    void testExportWallet() throws IOException {
+        Wallet wallet = new Wallet("testuser");
+        wallet.setBudget("Еда", 1000);
+        wallet.addTransaction(new Transaction("Зарплата", 5000, TransactionType.INCOME, "Основная"));
+        wallet.addTransaction(new Transaction("Еда", 250.5, TransactionType.EXPENSE, "Продукты \"у дома\""));
+        Path file = tempDir.resolve("wallet.json");
+
+        new JsonExporter().exportWallet(wallet, file.toString());
+
+        JsonNode root = new ObjectMapper().readTree(file.toFile());
+        assertEquals("testuser", root.get("username").asText());
+        assertEquals(4749.5, root.get("balance").asDouble());
+        assertEquals(2, root.get("transactions").size());
+        assertEquals("Продукты \"у дома\"", root.get("transactions").get(1).get("description").asText());
+        assertEquals(250.5, root.get("budgets").get(0).get("spent").asDouble());
+        assertEquals(2, root.get("categories").size());
+    }
+
+    @Test
+    @DisplayName("Инкрементальный экспорт JSON пишет новые транзакции отдельными сегментами")
+    void testIncrementalSegments() throws IOException {
+        Wallet wallet = new Wallet("testuser");
+        wallet.addTransaction(new Transaction("Зарплата", 5000, TransactionType.INCOME, "Основная"));
+        wallet.addTransaction(new Transaction("Еда", 300, TransactionType.EXPENSE, "Продукты"));
+        String base = tempDir.resolve("backup.json").toString();
+        JsonExporter exporter = new JsonExporter();
+
+        IncrementalExport first = exporter.exportIncremental(wallet, base);
+        IncrementalExport empty = exporter.exportIncremental(wallet, base);
+        wallet.addTransaction(new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе"));
+        IncrementalExport second = exporter.exportIncremental(wallet, base);
+
+        assertEquals(2, first.exported());
+        assertEquals(0, empty.exported());
+        assertEquals(1, second.exported());
+        assertNotEquals(first.filename(), second.filename());
+        JsonNode segment = new ObjectMapper().readTree(Path.of(second.filename()).toFile());
+        assertEquals(2, segment.get("fromOrdinal").asInt());
+        assertEquals("Кофе", segment.get("transactions").get(0).get("description").asText());
+    }
+}
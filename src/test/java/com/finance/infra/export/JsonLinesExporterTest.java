@@ -0,0 +1,44 @@
+package com.finance.infra.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLinesExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Параллельный экспорт JSON Lines совпадает с последовательным")
+    void testParallelMatchesSequential() throws IOException {
+        Wallet wallet = CsvExporterTest.createWallet(5_000);
+        Path sequential = tempDir.resolve("sequential.jsonl");
+        Path parallel = tempDir.resolve("parallel.jsonl");
+
+        new JsonLinesExporter(1, Integer.MAX_VALUE).export(wallet, sequential.toString());
+        new JsonLinesExporter(4, 61).export(wallet, parallel.toString());
+
+        assertEquals(-1, Files.mismatch(sequential, parallel));
+        List<String> lines = Files.readAllLines(parallel);
+        assertEquals(5_000, lines.size());
+
+        ObjectMapper mapper = new ObjectMapper();
+        Transaction last = wallet.getTransactions().getLast();
+        JsonNode node = mapper.readTree(lines.getLast());
+        assertEquals(last.getId(), node.get("id").asText());
+        assertEquals(last.getDescription(), node.get("description").asText());
+        assertEquals(last.getAmount(), node.get("amount").asDouble());
+    }
+}
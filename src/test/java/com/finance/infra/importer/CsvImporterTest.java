@@ -0,0 +1,103 @@
+package com.finance.infra.importer;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infra.export.CsvExporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Файл CsvExporter импортируется обратно")
+    void testImportExportedFile() throws IOException {
+        Wallet source = new Wallet("source");
+        source.addTransaction(new Transaction("Зарплата", 50000, TransactionType.INCOME, "Основная"));
+        source.addTransaction(new Transaction("Еда", 1234.5, TransactionType.EXPENSE, "Продукты; рынок"));
+        source.addTransaction(new Transaction("Кафе", 300, TransactionType.EXPENSE, "Обед \"у дома\""));
+        Path file = tempDir.resolve("export.csv");
+        new CsvExporter().export(source, file.toString());
+
+        Wallet target = new Wallet("target");
+        ImportResult result = new CsvImporter(CsvMapping.defaults()).importFile(file, target::addTransactions);
+
+        assertEquals(3, result.imported());
+        assertEquals(48465.5, target.getBalance(), 1e-9);
+        assertEquals(List.of("Основная", "Продукты; рынок", "Обед \"у дома\""),
+                target.getTransactions().stream().map(Transaction::getDescription).toList());
+        assertEquals(source.getTransactions().get(0).getDate().toLocalDate(),
+                target.getTransactions().get(0).getDate().toLocalDate());
+    }
+
+    @Test
+    @DisplayName("Порядок строк сохраняется при разбиении на маленькие блоки")
+    void testOrderPreservedAcrossChunks() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append("2024-03-15;EXPENSE;Еда;").append(i + 1).append(".25;\"строка ").append(i)
+                    .append(i % 7 == 0 ? "\nпродолжение\"" : "\"").append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Path file = tempDir.resolve("large.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        List<Transaction> imported = new ArrayList<>();
+        ImportResult result = new CsvImporter(CsvMapping.defaults(), 4, 97).importFile(file, imported::addAll);
+
+        assertEquals(1000, result.imported());
+        assertEquals(0, result.skipped());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 1.25, imported.get(i).getAmount(), 1e-9);
+            assertTrue(imported.get(i).getDescription().startsWith("строка " + i));
+        }
+        assertEquals("строка 0\nпродолжение", imported.get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Тип по знаку суммы, запятая в дробной части и пропуск неверных строк")
+    void testCustomMapping() throws IOException {
+        Path file = tempDir.resolve("bank.csv");
+        Files.writeString(file, """
+                Дата,Сумма,Категория
+                15.03.2024 10:30,-250.50,Такси
+                16.03.2024,"1000,75",Кэшбэк
+                17.03.2024,abc,Еда
+                18.03.2024,0,Еда
+                """, StandardCharsets.UTF_8);
+        CsvMapping mapping = CsvMapping.fromOptions(
+                List.of("delimiter=,", "date=0", "amount=1", "category=2", "type=-", "description=-"));
+
+        List<Transaction> imported = new ArrayList<>();
+        ImportResult result = new CsvImporter(mapping, 2, 16).importFile(file, imported::addAll);
+
+        assertEquals(2, result.imported());
+        assertEquals(3, result.skipped());
+        assertEquals(TransactionType.EXPENSE, imported.get(0).getType());
+        assertEquals(250.5, imported.get(0).getAmount(), 1e-9);
+        assertEquals(LocalDateTime.of(2024, 3, 15, 10, 30), imported.get(0).getDate());
+        assertEquals(TransactionType.INCOME, imported.get(1).getType());
+        assertEquals(1000.75, imported.get(1).getAmount(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Неверные опции сопоставления колонок")
+    void testInvalidMapping() {
+        assertThrows(IllegalArgumentException.class, () -> CsvMapping.fromOptions(List.of("amount=-")));
+        assertThrows(IllegalArgumentException.class, () -> CsvMapping.fromOptions(List.of("color=1")));
+        assertThrows(IllegalArgumentException.class, () -> CsvMapping.fromOptions(List.of("delimiter=\"")));
+    }
+}
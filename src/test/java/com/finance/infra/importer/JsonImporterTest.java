@@ -0,0 +1,89 @@
+package com.finance.infra.importer;
+
+import com.finance.core.model.Budget;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infra.export.JsonExporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Кошелек восстанавливается из файла JsonExporter")
+    void testRoundTrip() throws IOException {
+        Wallet source = new Wallet("source");
+        source.setBudget("Еда", 10000, 0.5);
+        for (int i = 0; i < 25; i++) {
+            source.addTransaction(new Transaction("Еда", 100 + i, TransactionType.EXPENSE, "Покупка " + i,
+                    LocalDateTime.of(2024, 3, 1, 10, 0).plusDays(i)));
+        }
+        source.addTransaction(new Transaction("Зарплата", 50000, TransactionType.INCOME, "Основная"));
+        Path file = tempDir.resolve("wallet.json");
+        new JsonExporter().exportWallet(source, file.toString());
+
+        Wallet target = new Wallet("target");
+        List<Integer> batchSizes = new ArrayList<>();
+        ImportResult result = new JsonImporter(10).importFile(file,
+                batch -> {
+                    batchSizes.add(batch.size());
+                    target.addTransactions(batch);
+                },
+                budget -> target.setBudget(budget.getCategory(), budget.getLimit(), budget.getWarningThreshold()));
+
+        assertEquals(26, result.imported());
+        assertEquals(0, result.skipped());
+        assertEquals(List.of(10, 10, 6), batchSizes);
+        assertEquals(source.getBalance(), target.getBalance(), 1e-9);
+        assertEquals(source.getTransactions().stream().map(Transaction::getId).toList(),
+                target.getTransactions().stream().map(Transaction::getId).toList());
+        assertEquals(source.getTransactions().get(3).getDate(), target.getTransactions().get(3).getDate());
+        Budget budget = target.getBudgets().get("Еда");
+        assertEquals(0.5, budget.getWarningThreshold());
+        assertEquals(source.getBudgets().get("Еда").getSpent(), budget.getSpent(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Произвольный порядок ключей, неизвестные поля и неверные записи")
+    void testLenientParsing() throws IOException {
+        Path file = tempDir.resolve("custom.json");
+        Files.writeString(file, """
+                {
+                  "budgets": [{"limit": 500, "category": "Кафе", "extra": {"a": [1, 2]}}, {"category": "Без лимита"}],
+                  "meta": {"version": 2},
+                  "transactions": [
+                    {"description": "Кофе", "amount": "150.5", "date": "2024-03-15T08:30:00",
+                     "category": "Кафе", "type": "expense", "tags": ["утро"]},
+                    {"type": "INCOME", "category": "Зарплата", "amount": 1000, "date": "не дата"},
+                    42
+                  ]
+                }
+                """, StandardCharsets.UTF_8);
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<Budget> budgets = new ArrayList<>();
+        ImportResult result = new JsonImporter().importFile(file, transactions::addAll, budgets::add);
+
+        assertEquals(1, result.imported());
+        assertEquals(3, result.skipped());
+        assertEquals(150.5, transactions.getFirst().getAmount());
+        assertEquals(TransactionType.EXPENSE, transactions.getFirst().getType());
+        assertEquals(1, budgets.size());
+        assertEquals(0.8, budgets.getFirst().getWarningThreshold());
+    }
+}
@@ -0,0 +1,240 @@
+package com.finance.infra.storage;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.infra.export.CsvExporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSourcedStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EventSourcedStorage open(int snapshotInterval) {
+        return new EventSourcedStorage(tempDir.resolve("events"), snapshotInterval, 4);
+    }
+
+    private static Transaction transaction(String category, double amount, TransactionType type, LocalDateTime date) {
+        return new Transaction(category, amount, type, "", date);
+    }
+
+    @Test
+    @DisplayName("Кошельки восстанавливаются из снимка и событий после него")
+    void testReplayAfterSnapshot() {
+        EventSourcedStorage storage = open(1_000);
+        for (int i = 0; i < 5; i++) {
+            storage.addUser(new User("user" + i, "password"));
+        }
+        storage.saveData();
+
+        for (int i = 0; i < 5; i++) {
+            Wallet wallet = storage.findByUsername("user" + i).getWallet();
+            wallet.addTransaction(new Transaction("Зарплата", 1000 * (i + 1), TransactionType.INCOME, "Оклад"));
+            wallet.setBudget("Еда", 500);
+            wallet.addTransaction(new Transaction("Еда", 100, TransactionType.EXPENSE, "Магазин"));
+        }
+        storage.saveData();
+
+        EventSourcedStorage reopened = open(1_000);
+        assertEquals(5, reopened.findAll().size());
+        for (int i = 0; i < 5; i++) {
+            Wallet wallet = reopened.findByUsername("user" + i).getWallet();
+            assertEquals(1000 * (i + 1) - 100, wallet.getBalance());
+            assertEquals(100, wallet.getBudgets().get("Еда").getSpent());
+            assertTrue(reopened.findByUsername("user" + i).authenticate("password"));
+        }
+
+        // После восстановления изменения снова попадают в журнал с продолжением нумерации
+        reopened.findByUsername("user0").getWallet().updateBudget("Еда", 700);
+        reopened.saveData();
+        assertEquals(700, open(1_000).findByUsername("user0").getWallet().getBudgets().get("Еда").getLimit());
+    }
+
+    @Test
+    @DisplayName("Оборванная запись в конце журнала отбрасывается")
+    void testTornTail() throws IOException {
+        EventSourcedStorage storage = open(1_000);
+        storage.addUser(new User("alice", "password"));
+        storage.findByUsername("alice").getWallet()
+                .addTransaction(new Transaction("Зарплата", 1000, TransactionType.INCOME, "Оклад"));
+        storage.saveData();
+
+        Path journal = tempDir.resolve("events").resolve("journal").resolve("alice.events");
+        long length = Files.size(journal);
+        Files.write(journal, new byte[]{0, 0, 0, 40, 0, 0}, StandardOpenOption.APPEND);
+
+        EventSourcedStorage reopened = open(1_000);
+        assertEquals(1000, reopened.findByUsername("alice").getWallet().getBalance());
+        assertEquals(length, Files.size(journal));
+
+        reopened.findByUsername("alice").getWallet()
+                .addTransaction(new Transaction("Еда", 200, TransactionType.EXPENSE, "Магазин"));
+        reopened.saveData();
+        assertEquals(800, open(1_000).findByUsername("alice").getWallet().getBalance());
+    }
+
+    @Test
+    @DisplayName("Баланс на дату считается по журналу, включая переводы")
+    void testBalanceAsOf() throws IOException {
+        EventSourcedStorage storage = open(2);
+        storage.addUser(new User("alice", "password"));
+        Wallet wallet = storage.findByUsername("alice").getWallet();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        wallet.addTransaction(transaction("Зарплата", 1000, TransactionType.INCOME, start));
+        wallet.addTransaction(transaction("Еда", 300, TransactionType.EXPENSE, start.plusDays(10)));
+        storage.saveData();
+        wallet.addTransfer("bob", transaction("Перевод", 200, TransactionType.EXPENSE, start.plusDays(20)));
+        storage.saveData();
+
+        assertEquals(0, storage.balanceAsOf("alice", start.minusDays(1)));
+        assertEquals(1000, storage.balanceAsOf("alice", start));
+        assertEquals(700, storage.balanceAsOf("alice", start.plusDays(15)));
+        assertEquals(500, storage.balanceAsOf("alice", start.plusDays(30)));
+        assertEquals(500, open(2).balanceAsOf("alice", start.plusDays(30)));
+        assertThrows(IllegalArgumentException.class, () -> storage.balanceAsOf("bob", start));
+    }
+
+    @Test
+    @DisplayName("Баланс на дату после снимка считается от снимка без чтения журнала с начала")
+    void testBalanceAsOfFromSnapshot() throws IOException {
+        EventSourcedStorage storage = open(2);
+        storage.addUser(new User("alice", "password"));
+        Wallet wallet = storage.findByUsername("alice").getWallet();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        wallet.addTransaction(transaction("Зарплата", 1000, TransactionType.INCOME, start));
+        wallet.addTransaction(transaction("Еда", 300, TransactionType.EXPENSE, start.plusDays(10)));
+        storage.saveData();
+        wallet.addTransaction(transaction("Еда", 100, TransactionType.EXPENSE, start.plusDays(20)));
+        storage.saveData();
+
+        EventSourcedStorage reopened = open(2);
+        // Первый кадр журнала портится: чтение от снимка его не затрагивает
+        Path journal = tempDir.resolve("events").resolve("journal").resolve("alice.events");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[16]), 0);
+        }
+        assertEquals(700, reopened.balanceAsOf("alice", start.plusDays(15)));
+        assertEquals(600, reopened.balanceAsOf("alice", start.plusDays(30)));
+    }
+
+    @Test
+    @DisplayName("Перенос из файлового хранилища записывает начальные события")
+    void testImportFrom() throws IOException {
+        FileDataStorage legacy = new FileDataStorage(tempDir.resolve("legacy.ser").toString());
+        User user = new User("alice", "password");
+        user.getWallet().addTransaction(transaction("Зарплата", 1000, TransactionType.INCOME,
+                LocalDateTime.of(2024, 1, 1, 0, 0)));
+        user.getWallet().addTransaction(transaction("Еда", 400, TransactionType.EXPENSE,
+                LocalDateTime.of(2024, 2, 1, 0, 0)));
+        user.getWallet().setBudget("Еда", 500, 0.9);
+        legacy.addUser(user);
+
+        EventSourcedStorage storage = open(1_000);
+        assertEquals(1, storage.importFrom(legacy));
+        storage.saveData();
+        assertEquals(0, storage.importFrom(legacy));
+
+        EventSourcedStorage reopened = open(1_000);
+        Wallet wallet = reopened.findByUsername("alice").getWallet();
+        assertEquals(600, wallet.getBalance());
+        assertEquals(0.9, wallet.getBudgets().get("Еда").getWarningThreshold());
+        assertEquals(1000, reopened.balanceAsOf("alice", LocalDateTime.of(2024, 1, 15, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("Позиция инкрементального экспорта переживает перезапуск без снимка")
+    void testExportWatermarkIsJournaled() throws IOException {
+        EventSourcedStorage storage = open(1_000);
+        storage.addUser(new User("alice", "password"));
+        storage.saveData();
+
+        Wallet wallet = storage.findByUsername("alice").getWallet();
+        wallet.addTransaction(new Transaction("Зарплата", 1000, TransactionType.INCOME, "Оклад"));
+        wallet.addTransaction(new Transaction("Еда", 200, TransactionType.EXPENSE, "Магазин"));
+        Path csv = tempDir.resolve("out.csv");
+        new CsvExporter().exportIncremental(wallet, csv.toString());
+        storage.saveData();
+
+        Wallet reopened = open(1_000).findByUsername("alice").getWallet();
+        assertEquals(wallet.getExportWatermark("csv:" + csv.toAbsolutePath()),
+                reopened.getExportWatermark("csv:" + csv.toAbsolutePath()));
+        assertEquals(0, new CsvExporter().exportIncremental(reopened, csv.toString()).exported());
+    }
+
+    @Test
+    @DisplayName("Журналы без читаемого снимка не открываются")
+    void testRefusesJournalsWithoutSnapshot() throws IOException {
+        EventSourcedStorage storage = open(1_000);
+        storage.addUser(new User("alice", "password"));
+        storage.findByUsername("alice").getWallet()
+                .addTransaction(new Transaction("Зарплата", 1000, TransactionType.INCOME, "Оклад"));
+        storage.saveData();
+
+        Path snapshot = tempDir.resolve("events").resolve(EventSourcedStorage.SNAPSHOT_FILE);
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        assertThrows(IllegalStateException.class, () -> open(1_000));
+        Files.delete(snapshot);
+        assertThrows(IllegalStateException.class, () -> open(1_000));
+    }
+
+    @Test
+    @DisplayName("Перенос не дописывает начальные события в существующий журнал")
+    void testImportKeepsExistingJournal() throws IOException {
+        EventSourcedStorage storage = open(1_000);
+        Path journal = tempDir.resolve("events").resolve("journal").resolve("alice.events");
+        Files.createDirectories(journal.getParent());
+        Files.write(journal, new byte[]{1, 2, 3});
+
+        FileDataStorage legacy = new FileDataStorage(tempDir.resolve("legacy.ser").toString());
+        legacy.addUser(new User("alice", "password"));
+        assertThrows(IOException.class, () -> storage.importFrom(legacy));
+        assertEquals(3, Files.size(journal));
+        assertNull(storage.findByUsername("alice"));
+    }
+
+    @Test
+    @DisplayName("Незаписанные события остаются в кошельке, оборванный хвост отрезается перед записью")
+    void testFailedAppendKeepsEvents() throws IOException {
+        EventSourcedStorage storage = open(1_000);
+        storage.addUser(new User("alice", "password"));
+        storage.addUser(new User("bob", "password"));
+        storage.saveData();
+
+        Path journals = tempDir.resolve("events").resolve("journal");
+        Path bobJournal = journals.resolve("bob.events");
+        Files.createDirectories(bobJournal);
+        Wallet alice = storage.findByUsername("alice").getWallet();
+        Wallet bob = storage.findByUsername("bob").getWallet();
+        alice.addTransaction(new Transaction("Зарплата", 1000, TransactionType.INCOME, "Оклад"));
+        bob.addTransaction(new Transaction("Зарплата", 500, TransactionType.INCOME, "Оклад"));
+        storage.saveData();
+
+        assertTrue(alice.pendingEvents().isEmpty());
+        assertEquals(1, bob.pendingEvents().size());
+
+        Files.delete(bobJournal);
+        Files.write(journals.resolve("alice.events"), new byte[]{0, 0, 0, 40, 0, 0}, StandardOpenOption.APPEND);
+        alice.addTransaction(new Transaction("Еда", 200, TransactionType.EXPENSE, "Магазин"));
+        storage.saveData();
+        assertTrue(bob.pendingEvents().isEmpty());
+
+        EventSourcedStorage reopened = open(1_000);
+        assertEquals(800, reopened.findByUsername("alice").getWallet().getBalance());
+        assertEquals(500, reopened.findByUsername("bob").getWallet().getBalance());
+        assertEquals(500, reopened.balanceAsOf("bob", LocalDateTime.now().plusDays(1)));
+    }
+}
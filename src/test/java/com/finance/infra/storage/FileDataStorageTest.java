@@ -2,12 +2,16 @@ package com.finance.infra.storage;
 
 import com.finance.core.model.User;
 import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFingerprint;
 import com.finance.core.model.TransactionType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -151,4 +155,62 @@ class FileDataStorageTest {
         assertTrue(loadedUser.authenticate("pass2"));
         assertEquals(20000, loadedUser.getWallet().getTotalIncome());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Поисковый индекс сохраняется вместе с кошельком")
+    void testSearchIndexPersisted() {
+        File testFile = new File(tempDir.toFile(), "test_data.ser");
+        FileDataStorage storage = new FileDataStorage(testFile.getAbsolutePath());
+
+        User user = new User("testuser", "password");
+        user.getWallet().addTransaction(new Transaction("Транспорт", 500, TransactionType.EXPENSE, "Такси в аэропорт"));
+        user.getWallet().addTransaction(new Transaction("Еда", 300, TransactionType.EXPENSE, "Кофе"));
+        storage.addUser(user);
+        storage.saveData();
+
+        User loadedUser = new FileDataStorage(testFile.getAbsolutePath()).findByUsername("testuser");
+
+        assertEquals(1, loadedUser.getWallet().search("такси аэропорт").size());
+        assertEquals(1, loadedUser.getWallet().search("кофе").size());
+    }
+
+    @Test
+    @DisplayName("Фильтр отпечатков сохраняется вместе с кошельком")
+    void testFingerprintFilterPersisted() {
+        File testFile = new File(tempDir.toFile(), "test_data.ser");
+        FileDataStorage storage = new FileDataStorage(testFile.getAbsolutePath());
+
+        User user = new User("testuser", "password");
+        Transaction transaction = new Transaction("Еда", 300, TransactionType.EXPENSE, "Кофе");
+        user.getWallet().addTransaction(transaction);
+        storage.addUser(user);
+        storage.saveData();
+
+        User loadedUser = new FileDataStorage(testFile.getAbsolutePath()).findByUsername("testuser");
+
+        assertTrue(loadedUser.getWallet().mightContainFingerprint(TransactionFingerprint.of(transaction)));
+    }
+
+    @Test
+    @DisplayName("Загрузка файла данных, записанного исходной версией")
+    void testLoadBaselineDataFile() throws IOException {
+        Path dataFile = tempDir.resolve("finance_data.ser");
+        try (InputStream fixture = getClass().getResourceAsStream("baseline_finance_data.ser")) {
+            assertNotNull(fixture);
+            Files.copy(fixture, dataFile);
+        }
+
+        FileDataStorage storage = new FileDataStorage(dataFile.toString());
+
+        User alice = storage.findByUsername("alice");
+        assertNotNull(alice);
+        assertTrue(alice.authenticate("password1"));
+        assertEquals(3, alice.getWallet().getTransactionCount());
+        assertEquals(50000 - 1200.5 - 300, alice.getWallet().getBalance(), 1e-9);
+        assertEquals(1200.5, alice.getWallet().getBudgets().get("Еда").getSpent(), 1e-9);
+        assertEquals(0.8, alice.getWallet().getBudgets().get("Еда").getWarningThreshold());
+        assertEquals(1500.5, alice.getWallet().getTotalExpenses(), 1e-9);
+        assertEquals(1, alice.getWallet().search("Метро").size());
+        assertEquals(700, storage.findByUsername("bob").getWallet().getBalance());
+    }
+}
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -284,4 +287,230 @@ class WalletTest {
         assertEquals("Зарплата", transactions.get(0).getCategory());
         assertEquals("Еда", transactions.get(1).getCategory());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Распределение сумм расходов по категориям")
+    void testExpenseDistributions() {
+        for (int i = 1; i <= 100; i++) {
+            wallet.addTransaction(new Transaction("Еда", i * 10, TransactionType.EXPENSE, "Продукты"));
+        }
+        wallet.addTransaction(new Transaction("Зарплата", 50000, TransactionType.INCOME, "Основная"));
+
+        var expenses = wallet.getAmountDistributions(TransactionType.EXPENSE);
+        var income = wallet.getAmountDistributions(TransactionType.INCOME);
+
+        assertEquals(1, expenses.size());
+        assertEquals(100, expenses.get("Еда").getCount());
+        assertEquals(500, expenses.get("Еда").getMedian());
+        assertEquals(990, expenses.get("Еда").quantile(0.99));
+        assertEquals(50000, income.get("Зарплата").getMedian());
+    }
+
+    @Test
+    @DisplayName("Предупреждение о необычно крупном расходе")
+    void testExpenseAnomaly() {
+        for (int i = 0; i < 10; i++) {
+            wallet.addTransaction(new Transaction("Еда", 1000 + i * 10, TransactionType.EXPENSE, "Продукты"));
+        }
+
+        assertTrue(wallet.checkExpenseAnomaly("Еда", 1050).isEmpty());
+        assertTrue(wallet.checkExpenseAnomaly("Транспорт", 50000).isEmpty());
+        assertTrue(wallet.checkExpenseAnomaly("Еда", 50000).orElseThrow().contains("Еда"));
+
+        var stats = wallet.getCategoryStatistics(TransactionType.EXPENSE).get("Еда");
+        assertEquals(10, stats.getCount());
+        assertEquals(1045, stats.getMean(), 1e-9);
+        assertEquals(1000, stats.getMin());
+        assertEquals(1090, stats.getMax());
+    }
+
+    @Test
+    @DisplayName("Полнотекстовый поиск транзакций")
+    void testSearch() {
+        wallet.addTransaction(new Transaction("Транспорт", 500, TransactionType.EXPENSE, "Такси до офиса"));
+        wallet.addTransaction(new Transaction("Еда", 300, TransactionType.EXPENSE, "Обед у офиса"));
+        wallet.addTransaction(new Transaction("Транспорт", 700, TransactionType.EXPENSE, "Такси домой"));
+
+        List<Transaction> found = wallet.search("такси офиса");
+
+        assertEquals(1, found.size());
+        assertEquals(500, found.getFirst().getAmount());
+        assertEquals(2, wallet.search("транспорт").size());
+        assertTrue(wallet.search("кино").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Подсчет расходов по категориям за месяц")
+    void testCalculateExpensesForCategoriesByMonth() {
+        wallet.addTransaction(new Transaction("Еда", 1000, TransactionType.EXPENSE, "Продукты"));
+        wallet.addTransaction(new Transaction("Еда", 500, TransactionType.INCOME, "Возврат"));
+        wallet.addTransaction(new Transaction("Такси", 300, TransactionType.EXPENSE, "Поездка"));
+
+        YearMonth current = YearMonth.now();
+
+        assertEquals(1300, wallet.calculateExpensesForCategories(Set.of("Еда", "Такси"), current));
+        assertEquals(0, wallet.calculateExpensesForCategories(Set.of("Еда", "Такси"), current.minusMonths(1)));
+        assertEquals(1000, wallet.calculateExpensesForCategories(Set.of("Еда", "Кино")));
+    }
+
+    @Test
+    @DisplayName("Пакетное добавление эквивалентно последовательному")
+    void testAddTransactionsMatchesSequential() {
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new Transaction("Зарплата", 1000, TransactionType.INCOME, "Доход " + i));
+            batch.add(new Transaction(i % 2 == 0 ? "Еда" : "Такси", 10 + i, TransactionType.EXPENSE, "Расход " + i));
+        }
+        Wallet sequential = new Wallet("sequential");
+        sequential.setBudget("Еда", 5000);
+        batch.forEach(sequential::addTransaction);
+
+        wallet.setBudget("Еда", 5000);
+        wallet.addTransactions(batch);
+
+        assertEquals(sequential.getBalance(), wallet.getBalance(), 1e-6);
+        assertEquals(sequential.getTotalExpenses(), wallet.getTotalExpenses(), 1e-6);
+        assertEquals(sequential.getExpensesByCategory(), wallet.getExpensesByCategory());
+        assertEquals(sequential.getBudgets().get("Еда").getSpent(), wallet.getBudgets().get("Еда").getSpent(), 1e-6);
+        assertEquals(sequential.getCategories(), wallet.getCategories());
+        assertEquals(50, wallet.getCategoryStatistics(TransactionType.EXPENSE).get("Такси").getCount());
+        assertEquals(200, wallet.getTransactionCount());
+        assertEquals(1, wallet.search("расход 99").size());
+        assertEquals(109, wallet.getLargestExpenses(1, null).get(0).getAmount());
+    }
+
+    @Test
+    @DisplayName("Пакет с пустой транзакцией не применяется")
+    void testAddTransactionsRejectsNull() {
+        List<Transaction> batch = new ArrayList<>();
+        batch.add(new Transaction("Еда", 100, TransactionType.EXPENSE, "Продукты"));
+        batch.add(null);
+
+        assertThrows(NullPointerException.class, () -> wallet.addTransactions(batch));
+        assertEquals(0, wallet.getTransactionCount());
+        assertEquals(0.0, wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Снимок не меняется после новых операций кошелька")
+    void testSnapshotIsolation() {
+        wallet.setBudget("Еда", 1000);
+        wallet.addTransaction(new Transaction("Зарплата", 5000, TransactionType.INCOME, "Аванс"));
+        wallet.addTransaction(new Transaction("Еда", 300, TransactionType.EXPENSE, "Продукты"));
+
+        WalletSnapshot snapshot = wallet.snapshot();
+        wallet.addTransaction(new Transaction("Еда", 200, TransactionType.EXPENSE, "Кафе"));
+        wallet.updateBudget("Еда", 2000);
+        snapshot.getBudgets().get("Еда").addSpending(10_000);
+
+        assertEquals(2, snapshot.getTransactionCount());
+        assertEquals(4700.0, snapshot.getBalance());
+        assertEquals(300.0, snapshot.getTotalExpenses());
+        assertEquals(1000.0, snapshot.getBudgets().get("Еда").getLimit());
+        assertEquals(300.0, snapshot.getBudgets().get("Еда").getSpent());
+        assertEquals(wallet.getTransactions(0, 2), snapshot.streamTransactions().toList());
+        assertEquals(3, wallet.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Снимки разной давности читают свою длину истории, пока кошелек растет")
+    void testSnapshotsAcrossChunks() {
+        List<Transaction> first = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            first.add(new Transaction("Еда", 1 + i % 10, TransactionType.EXPENSE, "Покупка " + i));
+        }
+        wallet.addTransactions(first);
+        wallet.setBudget("Еда", 100_000);
+
+        WalletSnapshot early = wallet.snapshot();
+        for (int i = 0; i < 5000; i++) {
+            wallet.addTransaction(new Transaction("Транспорт", 2, TransactionType.EXPENSE, "Проезд " + i));
+        }
+        WalletSnapshot late = wallet.snapshot();
+        wallet.addTransaction(new Transaction("Еда", 50, TransactionType.EXPENSE, "Кафе"));
+
+        assertEquals(first, early.getTransactions());
+        assertEquals(Set.of("Еда"), early.getCategories());
+        assertEquals(6500, late.getTransactionCount());
+        assertEquals(wallet.getTransactions(0, 6500), late.getTransactions());
+        assertEquals(wallet.getTransactions(1400, 1600), late.getTransactions(1400, 1600));
+        assertEquals(early.getBudgets().get("Еда").getSpent(), late.getBudgets().get("Еда").getSpent());
+        assertEquals(early.getBudgets().get("Еда").getSpent() + 50, wallet.getBudgets().get("Еда").getSpent());
+        assertThrows(IndexOutOfBoundsException.class, () -> early.getTransactions(0, 1501));
+    }
+
+    @Test
+    @DisplayName("Повторное применение событий восстанавливает кошелек")
+    void testReplayEvents() {
+        wallet.startRecordingEvents();
+        wallet.addTransaction(new Transaction("Зарплата", 5000, TransactionType.INCOME, "Аванс"));
+        wallet.addTransactions(List.of(
+                new Transaction("Еда", 300, TransactionType.EXPENSE, "Магазин"),
+                new Transaction("Транспорт", 100, TransactionType.EXPENSE, "Метро")));
+        wallet.setBudget("Еда", 1000);
+        wallet.setBudget("Транспорт", 500, 0.5);
+        wallet.updateBudget("Еда", 800);
+        wallet.removeBudget("Транспорт");
+        wallet.addTransfer("friend", new Transaction("Перевод", 200, TransactionType.EXPENSE, "Долг"));
+        assertThrows(IllegalArgumentException.class, () -> wallet.updateBudget("Нет", 10));
+
+        List<WalletEvent> events = wallet.drainEvents();
+        assertEquals(7, events.size());
+        assertEquals(new WalletEvent.BudgetRemoved("Транспорт"), events.get(5));
+        assertTrue(wallet.drainEvents().isEmpty());
+
+        Wallet replayed = new Wallet("testuser");
+        events.forEach(replayed::apply);
+        assertEquals(wallet.getTransactions(), replayed.getTransactions());
+        assertEquals(wallet.getBalance(), replayed.getBalance());
+        assertEquals(wallet.getCategories(), replayed.getCategories());
+        assertEquals(Set.of("Еда"), replayed.getBudgets().keySet());
+        assertEquals(800, replayed.getBudgets().get("Еда").getLimit());
+        assertEquals(300, replayed.getBudgets().get("Еда").getSpent());
+        assertTrue(replayed.drainEvents().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пакетное проведение дает те же итоги, что и поштучное")
+    void testBatchTotalsMatchSequential() {
+        List<Transaction> rows = List.of(
+                new Transaction("Зарплата", 1e16, TransactionType.INCOME, "Крупный"),
+                new Transaction("Зарплата", 1, TransactionType.INCOME, "Мелкий"),
+                new Transaction("Зарплата", 1, TransactionType.INCOME, "Мелкий"));
+        wallet.addTransaction(rows.get(0));
+        wallet.addTransaction(rows.get(1));
+        wallet.addTransactions(rows.subList(2, 3));
+
+        Wallet sequential = new Wallet("other");
+        rows.forEach(sequential::addTransaction);
+        assertEquals(1e16 + 2, sequential.getTotalIncome());
+        assertEquals(sequential.getTotalIncome(), wallet.getTotalIncome());
+    }
+
+    @Test
+    @DisplayName("Баланс на дату считается по индексу времени при вставках не по порядку")
+    void testBalanceAsOf() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        wallet.addTransaction(new Transaction("Зарплата", 1000, TransactionType.INCOME, "", start.plusDays(5)));
+        wallet.addTransaction(new Transaction("Еда", 300, TransactionType.EXPENSE, "", start));
+        wallet.addTransaction(new Transaction("Еда", 200, TransactionType.EXPENSE, "", start.plusDays(10)));
+
+        assertEquals(0, wallet.getBalanceAsOf(start.minusNanos(1)));
+        assertEquals(-300, wallet.getBalanceAsOf(start));
+        assertEquals(700, wallet.getBalanceAsOf(start.plusDays(5)));
+        assertEquals(500, wallet.getBalanceAsOf(LocalDateTime.MAX));
+        assertEquals(start.plusDays(10), wallet.getLatestTransactionDate());
+    }
+
+    @Test
+    @DisplayName("Расходы по категориям суммируются с компенсацией")
+    void testCategoryExpensesCompensated() {
+        wallet.addTransaction(new Transaction("Еда", 1e16, TransactionType.EXPENSE, "Крупный"));
+        wallet.addTransaction(new Transaction("Еда", 1, TransactionType.EXPENSE, "Мелкий"));
+        wallet.addTransaction(new Transaction("Кафе", 1, TransactionType.EXPENSE, "Мелкий"));
+
+        double expected = wallet.streamTransactions().mapToDouble(Transaction::getAmount).sum();
+        assertEquals(1e16 + 2, expected);
+        assertEquals(expected, wallet.calculateExpensesForCategories(Set.of("Еда", "Кафе")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.finance.query;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.query.QueryParser;
+import com.finance.core.query.TransactionQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryParserTest {
+    private final QueryParser parser = new QueryParser();
+
+    @Test
+    @DisplayName("Разбор составного запроса")
+    void testParseConjunction() {
+        TransactionQuery query = parser.parse("category in (Еда, Такси) and amount > 500 and date >= 2026-01-01");
+
+        assertEquals(Set.of("Еда", "Такси"), query.getCategories().orElseThrow());
+        assertEquals(500, query.getAmountMin());
+        assertFalse(query.isAmountMinInclusive());
+        assertEquals(LocalDate.of(2026, 1, 1).atStartOfDay(), query.getDateFrom());
+        assertNull(query.getDateTo());
+    }
+
+    @Test
+    @DisplayName("Условия по одной категории сужают множество")
+    void testCategoryIntersection() {
+        TransactionQuery query = parser.parse("category in (Еда, Такси) and category = Еда");
+        TransactionQuery empty = parser.parse("category = Еда and category = Такси");
+
+        assertEquals(Set.of("Еда"), query.getCategories().orElseThrow());
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка транзакции предикатом запроса")
+    void testMatches() {
+        TransactionQuery query = parser.parse("type = expense and category != Аренда and amount <= 1000");
+
+        assertTrue(query.matches(new Transaction("Еда", 1000, TransactionType.EXPENSE, "")));
+        assertFalse(query.matches(new Transaction("Еда", 1000.01, TransactionType.EXPENSE, "")));
+        assertFalse(query.matches(new Transaction("Аренда", 500, TransactionType.EXPENSE, "")));
+        assertFalse(query.matches(new Transaction("Еда", 500, TransactionType.INCOME, "")));
+    }
+
+    @Test
+    @DisplayName("Дата без времени задает целые сутки")
+    void testDateEquality() {
+        TransactionQuery query = parser.parse("date = 2026-03-15");
+
+        assertEquals(LocalDate.of(2026, 3, 15).atStartOfDay(), query.getDateFrom());
+        assertEquals(LocalDate.of(2026, 3, 16).atStartOfDay(), query.getDateTo());
+    }
+
+    @Test
+    @DisplayName("Значения в кавычках могут содержать пробелы")
+    void testQuotedValues() {
+        TransactionQuery query = parser.parse("category in (\"Еда вне дома\", 'Такси')");
+
+        assertEquals(Set.of("Еда вне дома", "Такси"), query.getCategories().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Ошибки разбора")
+    void testInvalidQueries() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("amount >"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("amount > abc"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("color = red"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("amount > 5 or amount < 1"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("date > 2026-13-01"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("amount in (1, 2)"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.finance.service;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.repository.UserRepository;
+import com.finance.core.service.AnalyticsService;
+import com.finance.core.service.GlobalReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsServiceTest {
+    private UserRepository userRepository;
+    private AnalyticsService analyticsService;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = new ArrayList<>();
+        userRepository = mock(UserRepository.class);
+        when(userRepository.streamAll()).thenAnswer(invocation -> users.stream());
+        analyticsService = new AnalyticsService(userRepository, 4);
+    }
+
+    private User userWithExpenses(String username, double... expenses) {
+        User user = new User(username, "password");
+        user.getWallet().addTransaction(new Transaction("Зарплата", 100000, TransactionType.INCOME, ""));
+        for (double expense : expenses) {
+            user.getWallet().addTransaction(new Transaction("Еда", expense, TransactionType.EXPENSE, ""));
+        }
+        return user;
+    }
+
+    @Test
+    @DisplayName("Сводный отчет объединяет итоги всех пользователей")
+    void testGlobalTotals() {
+        users.add(userWithExpenses("alice", 1000, 2000));
+        users.add(userWithExpenses("bob", 500));
+
+        GlobalReport report = analyticsService.generateGlobalReport(10);
+
+        assertEquals(2, report.getUserCount());
+        assertEquals(200000, report.getTotalIncome());
+        assertEquals(3500, report.getTotalExpenses());
+        assertEquals(3500, report.getExpensesByCategory().get("Еда"));
+        assertEquals(200000, report.getIncomeByCategory().get("Зарплата"));
+    }
+
+    @Test
+    @DisplayName("Рейтинг пользователей по расходам ограничен и отсортирован")
+    void testTopSpenders() {
+        for (int i = 1; i <= 20; i++) {
+            users.add(userWithExpenses("user" + i, i * 100));
+        }
+
+        GlobalReport report = analyticsService.generateGlobalReport(3);
+
+        assertEquals(3, report.getTopSpenders().size());
+        assertEquals("user20", report.getTopSpenders().get(0).username());
+        assertEquals("user19", report.getTopSpenders().get(1).username());
+        assertEquals("user18", report.getTopSpenders().get(2).username());
+    }
+
+    @Test
+    @DisplayName("Перцентили расходов на пользователя")
+    void testExpensePercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            users.add(userWithExpenses("user" + i, i));
+        }
+
+        GlobalReport report = analyticsService.generateGlobalReport(0);
+
+        assertEquals(50, report.getExpensePercentiles().get(50));
+        assertEquals(90, report.getExpensePercentiles().get(90));
+        assertEquals(99, report.getExpensePercentiles().get(99));
+        assertTrue(report.getTopSpenders().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пустое хранилище дает пустой отчет")
+    void testEmptyRepository() {
+        GlobalReport report = analyticsService.generateGlobalReport(5);
+
+        assertEquals(0, report.getUserCount());
+        assertTrue(report.getExpensePercentiles().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.generateGlobalReport(-1));
+    }
+}
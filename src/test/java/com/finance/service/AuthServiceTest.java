@@ -135,4 +135,18 @@ class AuthServiceTest {
         assertFalse(result);
         verify(userRepository, never()).addUser(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Дополнение и подсказки имен пользователей")
+    void testUsernameCompletion() {
+        when(userRepository.findAll()).thenReturn(java.util.List.of(new User("alice", "password")));
+        when(userRepository.exists("alina")).thenReturn(false);
+
+        assertEquals(java.util.List.of("alice"), authService.completeUsername("al", 5));
+
+        authService.register("alina", "password");
+
+        assertEquals(java.util.List.of("alice", "alina"), authService.completeUsername("al", 5));
+        assertEquals(java.util.List.of("alice"), authService.suggestUsernames("alic", 5));
+    }
+}
@@ -3,6 +3,8 @@ package com.finance.service;
 import com.finance.core.model.*;
 import com.finance.core.service.FinanceService;
 import com.finance.core.service.FinancialReport;
+import com.finance.core.service.ImportDeduplicator;
+import com.finance.core.query.QueryPlan;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -405,4 +407,116 @@ class FinanceServiceTest {
         double foodAndTransport = financeService.calculateExpensesForCategories(Set.of("Еда", "Транспорт"));
         assertEquals(11000, foodAndTransport);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Запрос выбирает самый дешевый индекс")
+    void testQueryPlanAndResults() {
+        for (int i = 0; i < 50; i++) {
+            financeService.addExpense("Еда", 100 + i, "Продукты");
+        }
+        financeService.addExpense("Такси", 700, "Поездка");
+        financeService.addExpense("Такси", 300, "Поездка");
+
+        var plan = financeService.explainQuery("category in (Такси) and amount > 100 and date >= 2000-01-01");
+        var results = financeService.query("category in (Такси) and amount > 500 and date >= 2000-01-01").toList();
+
+        assertEquals(QueryPlan.AccessPath.CATEGORY_INDEX, plan.accessPath());
+        assertEquals(2, plan.estimatedRows());
+        assertEquals(1, results.size());
+        assertEquals(700, results.getFirst().getAmount());
+
+        assertEquals(QueryPlan.AccessPath.TIME_INDEX, financeService.explainQuery("date >= 2100-01-01").accessPath());
+        assertEquals(0, financeService.query("date >= 2100-01-01").count());
+        assertEquals(QueryPlan.AccessPath.FULL_SCAN, financeService.explainQuery("type = expense").accessPath());
+        assertEquals(29, financeService.query("amount > 120 and category = Еда").count());
+        assertEquals(QueryPlan.AccessPath.EMPTY,
+                financeService.explainQuery("category = Еда and category = Такси").accessPath());
+    }
+
+    @Test
+    @DisplayName("Крупнейшие расходы и расходы выше порога")
+    void testLargestExpenses() {
+        financeService.addIncome("Зарплата", 100000, "Основная");
+        financeService.addExpense("Еда", 300, "Продукты");
+        financeService.addExpense("Аренда", 30000, "Квартира");
+        financeService.addExpense("Еда", 1200, "Ресторан");
+        financeService.addExpense("Такси", 800, "Поездка");
+
+        List<Transaction> top = financeService.getLargestExpenses(2, null);
+        List<Transaction> topFood = financeService.getLargestExpenses(5, "Еда");
+
+        assertEquals(List.of(30000.0, 1200.0), top.stream().map(Transaction::getAmount).toList());
+        assertEquals(List.of(1200.0, 300.0), topFood.stream().map(Transaction::getAmount).toList());
+        assertEquals(3, financeService.getExpensesAbove(500).size());
+        assertEquals(QueryPlan.AccessPath.AMOUNT_INDEX,
+                financeService.explainQuery("amount > 10000").accessPath());
+        assertEquals(2, financeService.query("amount > 10000").count());
+        assertEquals(1, financeService.query("amount > 10000 and type = expense").count());
+    }
+
+    @Test
+    @DisplayName("Операции внутри транзакции применяются только при фиксации")
+    void testCommitTransaction() {
+        financeService.beginTransaction();
+        financeService.addIncome("Зарплата", 50000, "Основная");
+        financeService.addExpense("Еда", 1500, "Продукты");
+
+        assertTrue(financeService.isInTransaction());
+        assertEquals(2, financeService.getPendingCount());
+        assertEquals(0, userWallet.getTransactionCount());
+        assertThrows(IllegalStateException.class, () -> financeService.beginTransaction());
+
+        assertEquals(2, financeService.commitTransaction());
+        assertFalse(financeService.isInTransaction());
+        assertEquals(48500, userWallet.getBalance());
+        assertEquals(2, userWallet.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Отмена транзакции не изменяет кошелек")
+    void testRollbackTransaction() {
+        financeService.addIncome("Зарплата", 50000, "Основная");
+        financeService.beginTransaction();
+        financeService.addExpense("Еда", 1500, "Продукты");
+
+        assertThrows(IllegalStateException.class,
+                () -> financeService.transfer(new Wallet("other"), 100, "Перевод"));
+        assertEquals(1, financeService.rollbackTransaction());
+        assertEquals(50000, userWallet.getBalance());
+        assertEquals(1, userWallet.getTransactionCount());
+        assertThrows(IllegalStateException.class, () -> financeService.commitTransaction());
+    }
+
+    @Test
+    @DisplayName("Бюджеты нельзя менять внутри транзакции")
+    void testBudgetsRejectedInTransaction() {
+        financeService.setBudget("Еда", 1000);
+        financeService.beginTransaction();
+
+        assertThrows(IllegalStateException.class, () -> financeService.setBudget("Транспорт", 500));
+        assertThrows(IllegalStateException.class, () -> financeService.setBudget("Транспорт", 500, 0.5));
+        assertThrows(IllegalStateException.class, () -> financeService.updateBudget("Еда", 2000));
+        assertThrows(IllegalStateException.class, () -> financeService.removeBudget("Еда"));
+        financeService.rollbackTransaction();
+
+        assertEquals(Set.of("Еда"), userWallet.getBudgets().keySet());
+        assertEquals(1000, userWallet.getBudgets().get("Еда").getLimit());
+    }
+
+    @Test
+    @DisplayName("Повторный импорт внутри транзакции учитывает отложенные строки")
+    void testDeduplicatorSeesStagedRows() {
+        List<Transaction> rows = List.of(
+                new Transaction("Еда", 300, TransactionType.EXPENSE, "Магазин"),
+                new Transaction("Еда", 300, TransactionType.EXPENSE, "Магазин"),
+                new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе"));
+        financeService.beginTransaction();
+        financeService.addTransactions(financeService.newImportDeduplicator().filter(rows));
+
+        ImportDeduplicator second = financeService.newImportDeduplicator();
+        assertTrue(second.filter(rows).isEmpty());
+        assertEquals(3, second.getDuplicates());
+        assertEquals(3, financeService.commitTransaction());
+        assertEquals(3, userWallet.getTransactionCount());
+    }
+}
@@ -0,0 +1,89 @@
+package com.finance.service;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.ImportDeduplicator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImportDeduplicatorTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    private static List<Transaction> statement(int from, int to) {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            rows.add(new Transaction("Еда", 100 + i, TransactionType.EXPENSE, "Покупка " + i, DATE.plusDays(i % 30)));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Повторный импорт пересекающейся выписки не создает дубликатов")
+    void testOverlappingStatements() {
+        Wallet wallet = new Wallet("testuser");
+        wallet.addTransactions(statement(0, 3000));
+
+        ImportDeduplicator deduplicator = new ImportDeduplicator(wallet);
+        List<Transaction> fresh = deduplicator.filter(statement(2000, 5000));
+        wallet.addTransactions(fresh);
+
+        assertEquals(2000, fresh.size());
+        assertEquals(1000, deduplicator.getDuplicates());
+        assertEquals(5000, wallet.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Одинаковые строки учитываются по количеству")
+    void testRepeatedRowsCounted() {
+        Wallet wallet = new Wallet("testuser");
+        wallet.addTransaction(new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе", DATE));
+
+        ImportDeduplicator deduplicator = new ImportDeduplicator(wallet);
+        List<Transaction> first = deduplicator.filter(List.of(
+                new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе", DATE.plusHours(1))));
+        wallet.addTransactions(first);
+        List<Transaction> second = deduplicator.filter(List.of(
+                new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе", DATE.plusHours(2)),
+                new Transaction("Кафе", 150, TransactionType.EXPENSE, "Кофе", DATE.plusDays(1))));
+
+        assertTrue(first.isEmpty());
+        assertEquals(2, second.size());
+        assertEquals(1, deduplicator.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("Фильтр отпечатков растет вместе с кошельком")
+    void testFilterGrowsWithWallet() {
+        Wallet wallet = new Wallet("testuser");
+        List<Transaction> rows = statement(0, 5000);
+        rows.forEach(wallet::addTransaction);
+
+        ImportDeduplicator deduplicator = new ImportDeduplicator(wallet);
+        assertTrue(deduplicator.filter(rows).isEmpty());
+        assertEquals(5000, deduplicator.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("История сводится в счетчики один раз за импорт")
+    void testHistoryScannedOncePerImport() {
+        Wallet wallet = spy(new Wallet("testuser"));
+        wallet.addTransactions(statement(0, 3000));
+
+        ImportDeduplicator deduplicator = new ImportDeduplicator(wallet);
+        assertEquals(500, deduplicator.filter(statement(2500, 3500)).size());
+        assertEquals(0, deduplicator.filter(statement(1000, 1500)).size());
+        // Совпадения уже исчерпаны: повтор строк проходит как новые
+        assertEquals(500, deduplicator.filter(statement(1000, 1500)).size());
+        assertEquals(1000, deduplicator.getDuplicates());
+
+        verify(wallet, times(1)).countFingerprints(3000);
+    }
+}
@@ -0,0 +1,64 @@
+package com.finance.stats;
+
+import com.finance.core.stats.HeavyHitters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+    @Test
+    @DisplayName("Частые получатели находятся среди множества редких")
+    void testTopByFrequencyWithLongTail() {
+        HeavyHitters hitters = new HeavyHitters(16);
+        for (int i = 0; i < 10_000; i++) {
+            hitters.add("Магазин " + i, 10);
+            if (i % 2 == 0) {
+                hitters.add("Пятерочка", 100);
+            }
+            if (i % 5 == 0) {
+                hitters.add("Такси", 300);
+            }
+        }
+
+        List<HeavyHitters.Hitter> top = hitters.topByFrequency(2);
+
+        assertEquals("пятерочка", top.get(0).description());
+        assertEquals("такси", top.get(1).description());
+        assertTrue(top.get(0).estimate() >= 5_000);
+    }
+
+    @Test
+    @DisplayName("Получатели по сумме расходов")
+    void testTopBySpend() {
+        HeavyHitters hitters = new HeavyHitters(8);
+        hitters.add("Аренда", 30000);
+        for (int i = 0; i < 20; i++) {
+            hitters.add("Кофейня", 200);
+        }
+        hitters.add("Аптека", 1500);
+
+        List<HeavyHitters.Hitter> top = hitters.topBySpend(3);
+
+        assertEquals("аренда", top.get(0).description());
+        assertEquals("кофейня", top.get(1).description());
+        assertEquals(4000, top.get(1).estimate());
+        assertEquals("аптека", top.get(2).description());
+    }
+
+    @Test
+    @DisplayName("Описания нормализуются, пустые пропускаются")
+    void testNormalization() {
+        HeavyHitters hitters = new HeavyHitters();
+        hitters.add("  Кофейня   Центр ", 100);
+        hitters.add("кофейня центр", 100);
+        hitters.add("   ", 500);
+
+        assertEquals(1, hitters.topByFrequency(10).size());
+        assertEquals(2, hitters.estimateFrequency("КОФЕЙНЯ ЦЕНТР"));
+        assertEquals(200, hitters.estimateSpend("кофейня центр"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.finance.stats;
+
+import com.finance.core.stats.QuantileSketch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    @DisplayName("Пустой скетч возвращает NaN")
+    void testEmptySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.getMedian()));
+    }
+
+    @Test
+    @DisplayName("Точные квантили на малом количестве значений")
+    void testSmallInputIsExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 5; i++) {
+            sketch.update(i * 100);
+        }
+
+        assertEquals(300, sketch.getMedian());
+        assertEquals(100, sketch.getMin());
+        assertEquals(500, sketch.getMax());
+        assertEquals(500, sketch.quantile(1));
+    }
+
+    @Test
+    @DisplayName("Приближенные квантили на большом потоке при ограниченной памяти")
+    void testLargeStreamAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            sketch.update((i * 7919L) % n);
+        }
+
+        assertEquals(n, sketch.getCount());
+        assertEquals(n * 0.5, sketch.getMedian(), n * 0.02);
+        assertEquals(n * 0.9, sketch.quantile(0.9), n * 0.02);
+        assertEquals(n * 0.99, sketch.quantile(0.99), n * 0.02);
+        assertTrue(sketch.getRetainedItems() < 2_000);
+    }
+
+    @Test
+    @DisplayName("Объединение скетчей эквивалентно общему потоку")
+    void testMerge() {
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 50_000; i++) {
+            first.update(i);
+            second.update(50_000 + i);
+        }
+
+        first.merge(second);
+
+        assertEquals(100_000, first.getCount());
+        assertEquals(0, first.getMin());
+        assertEquals(99_999, first.getMax());
+        assertEquals(50_000, first.getMedian(), 2_000);
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    @DisplayName("Объединение скетча с самим собой удваивает поток")
+    void testMergeWithItself() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i);
+        }
+
+        sketch.merge(sketch);
+
+        assertEquals(20_000, sketch.getCount());
+        assertEquals(0, sketch.getMin());
+        assertEquals(9_999, sketch.getMax());
+        assertEquals(5_000, sketch.getMedian(), 500);
+    }
+
+    @Test
+    @DisplayName("Скетч сериализуется и восстанавливается")
+    void testSerialization() throws IOException, ClassNotFoundException {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(sketch);
+        }
+        QuantileSketch restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (QuantileSketch) in.readObject();
+        }
+
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertEquals(sketch.getMedian(), restored.getMedian());
+    }
+
+    @Test
+    @DisplayName("NaN не допускается")
+    void testNaNRejected() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.update(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+    }
+}
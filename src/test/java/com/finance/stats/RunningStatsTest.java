@@ -0,0 +1,80 @@
+package com.finance.stats;
+
+import com.finance.core.stats.RunningStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatsTest {
+
+    @Test
+    @DisplayName("Среднее, дисперсия и границы считаются онлайн")
+    void testBasicStatistics() {
+        RunningStats stats = new RunningStats();
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            stats.add(value);
+        }
+
+        assertEquals(8, stats.getCount());
+        assertEquals(5, stats.getMean(), 1e-9);
+        assertEquals(32.0 / 7, stats.getVariance(), 1e-9);
+        assertEquals(2, stats.getMin());
+        assertEquals(9, stats.getMax());
+        assertEquals(40, stats.getSum());
+    }
+
+    @Test
+    @DisplayName("Объединение статистик эквивалентно общему потоку")
+    void testMerge() {
+        RunningStats all = new RunningStats();
+        RunningStats first = new RunningStats();
+        RunningStats second = new RunningStats();
+        for (int i = 1; i <= 100; i++) {
+            all.add(i * 1.5);
+            (i <= 30 ? first : second).add(i * 1.5);
+        }
+
+        first.merge(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), 1e-9);
+        assertEquals(all.getVariance(), first.getVariance(), 1e-6);
+        assertEquals(all.getSum(), first.getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Выброс определяется только после накопления выборки")
+    void testOutlier() {
+        RunningStats stats = new RunningStats();
+        stats.add(100);
+        stats.add(110);
+
+        assertFalse(stats.isOutlier(10000, 3, 5));
+
+        stats.add(90);
+        stats.add(105);
+        stats.add(95);
+
+        assertTrue(stats.isOutlier(10000, 3, 5));
+        assertFalse(stats.isOutlier(110, 3, 5));
+        assertFalse(stats.isOutlier(1, 3, 5));
+    }
+
+    @Test
+    @DisplayName("Слияние сохраняет поправку Кэхэна обеих сторон")
+    void testMergeKeepsCompensation() {
+        RunningStats sequential = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        double[] values = {1e16, 1, 1, 1, 0.1, 0.2, 0.3};
+        for (int i = 0; i < values.length; i++) {
+            sequential.add(values[i]);
+            (i < 2 ? left : right).add(values[i]);
+        }
+
+        left.merge(right);
+        assertEquals(sequential.getSum(), left.getSum());
+        assertEquals(1e16 + 4, left.getSum());
+    }
+}